@@ -0,0 +1,5 @@
+#!/bin/sh
+# Allows the postgres-replica service to stream WAL from this instance. Only runs when the data
+# directory is first initialised; on an existing volume append the line to pg_hba.conf by hand.
+set -e
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"
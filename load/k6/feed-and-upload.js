@@ -0,0 +1,67 @@
+// k6 load profile for /api/v1/upload and /api/v1/photos/more.
+//
+// Usage:
+//   k6 run -e BASE_URL=http://localhost:8080 -e IMAGE=./sample.jpg load/k6/feed-and-upload.js
+//
+// Two scenarios run side by side so upload latency and feed latency can be compared
+// under the same mixed load. Summary output includes throughput (http_reqs) and
+// p(99) per endpoint via the tagged thresholds below.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const IMAGE = open(__ENV.IMAGE || './sample.jpg', 'b');
+
+export const options = {
+    scenarios: {
+        uploads: {
+            executor: 'constant-arrival-rate',
+            exec: 'upload',
+            rate: Number(__ENV.UPLOAD_RATE || 50),
+            timeUnit: '1s',
+            duration: __ENV.DURATION || '2m',
+            preAllocatedVUs: 200,
+            maxVUs: 2000,
+        },
+        feed: {
+            executor: 'constant-arrival-rate',
+            exec: 'scrollFeed',
+            rate: Number(__ENV.FEED_RATE || 300),
+            timeUnit: '1s',
+            duration: __ENV.DURATION || '2m',
+            preAllocatedVUs: 200,
+            maxVUs: 2000,
+        },
+    },
+    summaryTrendStats: ['avg', 'p(50)', 'p(95)', 'p(99)', 'max'],
+    thresholds: {
+        'http_req_duration{endpoint:upload}': ['p(99)<5000'],
+        'http_req_duration{endpoint:feed}': ['p(99)<500'],
+    },
+};
+
+export function upload() {
+    const response = http.post(`${BASE_URL}/api/v1/upload`, {
+        file: http.file(IMAGE, 'load-test.jpg', 'image/jpeg'),
+        description: 'k6 load test',
+    }, { tags: { endpoint: 'upload' } });
+    check(response, { 'upload accepted': r => r.status === 200 });
+}
+
+export function scrollFeed() {
+    let cursor = null;
+    // three pages per iteration, following the keyset cursor like the browser does
+    for (let page = 0; page < 3; page++) {
+        const query = cursor ? `?limit=5&cursor=${encodeURIComponent(cursor)}` : '?limit=5';
+        const response = http.get(`${BASE_URL}/api/v1/photos/more${query}`, { tags: { endpoint: 'feed' } });
+        check(response, { 'feed ok': r => r.status === 200 });
+        if (response.status !== 200) {
+            return;
+        }
+        const body = response.json();
+        if (!body.hasMore) {
+            return;
+        }
+        cursor = body.nextCursor;
+    }
+}
@@ -0,0 +1,64 @@
+#!/usr/bin/env sh
+# Startup benchmark: time from `docker run` to the first successful feed request.
+#
+# Usage:
+#   docker compose up -d postgres
+#   docker build --build-arg CDS=false -t pexelhub:baseline .
+#   docker build --build-arg SPRING_AOT=true -t pexelhub:startup .
+#   load/startup/time-to-first-request.sh pexelhub:baseline pexelhub:startup
+#
+# Each image is started RUNS times (default 5) with the variables in ENV_FILE (default .env)
+# plus DB_HOST/DB_PORT pointing at the compose database and a per-process URL signing secret
+# unless ENV_FILE sets one. Prints every run and the median in milliseconds, together with
+# Spring's own "Started ... in" time. Limit the container to the
+# task size (CPUS, MEMORY; defaults match the ECS task definition) so results reflect Fargate.
+set -eu
+
+RUNS=${RUNS:-5}
+ENV_FILE=${ENV_FILE:-.env}
+CPUS=${CPUS:-0.25}
+MEMORY=${MEMORY:-512m}
+URL=${URL:-http://localhost:8080/api/v1/photos/more?limit=1}
+TIMEOUT_SECONDS=${TIMEOUT_SECONDS:-180}
+
+now_ms() {
+    date +%s%3N
+}
+
+run_once() {
+    image=$1
+    start=$(now_ms)
+    container=$(docker run -d --rm -p 8080:8080 --cpus "$CPUS" --memory "$MEMORY" \
+        --env-file "$ENV_FILE" -e DB_HOST=host.docker.internal -e DB_PORT=5332 \
+        -e STORAGE_EPHEMERAL_SIGNING_SECRET=true \
+        --add-host host.docker.internal:host-gateway "$image")
+    deadline=$(( $(date +%s) + TIMEOUT_SECONDS ))
+    until curl -fs -o /dev/null "$URL"; do
+        if [ "$(date +%s)" -ge "$deadline" ]; then
+            echo "timed out waiting for $image" >&2
+            docker logs "$container" >&2
+            docker stop "$container" > /dev/null
+            return 1
+        fi
+        sleep 0.05
+    done
+    end=$(now_ms)
+    started=$(docker logs "$container" 2>&1 | sed -n 's/.*Started .* in \([0-9.]*\) seconds.*/\1/p' | head -n 1)
+    docker stop "$container" > /dev/null
+    echo "$((end - start)) ${started:-?}"
+}
+
+for image in "$@"; do
+    results=""
+    echo "== $image"
+    i=1
+    while [ "$i" -le "$RUNS" ]; do
+        result=$(run_once "$image")
+        echo "run $i: first request after ${result% *} ms (Spring reports ${result#* } s)"
+        results="$results${result% *}
+"
+        i=$((i + 1))
+    done
+    median=$(printf '%s' "$results" | sort -n | awk '{ a[NR] = $1 } END { print a[int((NR + 1) / 2)] }')
+    echo "median time to first request: $median ms"
+done
@@ -0,0 +1,63 @@
+package com.amalitech.pexelhub.mapper;
+
+import com.amalitech.pexelhub.BenchmarkFixtures;
+import com.amalitech.pexelhub.dto.response.PhotoResponse;
+import com.amalitech.pexelhub.model.Photo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link PhotoMapper#toPhotoResponse(Photo)} per feed item, i.e. presigning the
+ * original plus its three variants. {@code cacheMaxSize=0} measures raw SigV4 signing on every
+ * call; a large cache measures the steady state of a warm feed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PhotoMapperBenchmark {
+
+    @Param({"0", "10000"})
+    long cacheMaxSize;
+
+    private S3Presigner presigner;
+    private PhotoMapper photoMapper;
+    private List<Photo> photos;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        presigner = BenchmarkFixtures.presigner();
+        photoMapper = BenchmarkFixtures.photoMapper(presigner, cacheMaxSize);
+        photos = BenchmarkFixtures.photos(1000);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        presigner.close();
+    }
+
+    @Benchmark
+    public PhotoResponse toPhotoResponse() {
+        Photo photo = photos.get(next);
+        next = (next + 1) % photos.size();
+        return photoMapper.toPhotoResponse(photo);
+    }
+}
@@ -0,0 +1,89 @@
+package com.amalitech.pexelhub.service;
+
+import com.amalitech.pexelhub.BenchmarkFixtures;
+import com.amalitech.pexelhub.model.Photo;
+import com.amalitech.pexelhub.repository.PhotoRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+
+/**
+ * Building and serializing one feed page.
+ * <p>
+ * {@link #assemblePage()} covers the stream-and-{@code HashMap} response assembly of
+ * {@link PhotoServiceImpl#getPhotosByCursor(String, int)} with a warm URL cache; the repository
+ * is a Mockito stub behind a warm {@link FeedCache}, so the measured cost is the cache lookup
+ * plus mapping.
+ * {@link #serializePage()} covers Jackson serialization of the resulting payload with the
+ * application's ObjectMapper settings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeedAssemblyBenchmark {
+
+    @Param({"5", "50"})
+    int pageSize;
+
+    private S3Presigner presigner;
+    private PhotoServiceImpl photoService;
+    private ObjectMapper objectMapper;
+    private Map<String, Object> page;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Photo> photos = BenchmarkFixtures.photos(pageSize);
+        PhotoRepository photoRepository = Mockito.mock(PhotoRepository.class);
+        Mockito.when(photoRepository.findLatestPhotos(any()))
+                .thenReturn(new SliceImpl<>(photos, PageRequest.of(0, pageSize), true));
+
+        presigner = BenchmarkFixtures.presigner();
+        photoService = new PhotoServiceImpl(photoRepository, null,
+                BenchmarkFixtures.photoMapper(presigner, 10_000), null, null, null,
+                new FeedCache(Duration.ofHours(1)), event -> { }, new PhotoMetrics(new SimpleMeterRegistry()), null, null);
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        page = photoService.getPhotosByCursor(null, pageSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        presigner.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> assemblePage() {
+        return photoService.getPhotosByCursor(null, pageSize);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws Exception {
+        return objectMapper.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,40 @@
+package com.amalitech.pexelhub.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File name sanitizing done for every upload: the current precompiled pattern against the
+ * original {@link String#replaceAll} call, which recompiles the regex each time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FilenameSanitizerBenchmark {
+
+    @Param({"IMG_2024.jpg", "Family holiday (Cape Coast) – day 3 – sunset #12.jpeg"})
+    String filename;
+
+    @Benchmark
+    public String precompiledPattern() {
+        return PhotoServiceImpl.sanitizeFilename(filename);
+    }
+
+    @Benchmark
+    public String stringReplaceAll() {
+        return filename.replaceAll("[^a-zA-Z0-9.-]", "_");
+    }
+}
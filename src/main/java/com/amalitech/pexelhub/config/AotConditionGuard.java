@@ -0,0 +1,92 @@
+package com.amalitech.pexelhub.config;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Refuses to start an AOT-processed build when a property that switches beans on or off differs
+ * from the value it had at build time.
+ * <p>
+ * With Spring AOT the bean conditions are evaluated once, while the build runs; setting one of
+ * these properties at runtime would otherwise be silently ignored, e.g. image proxy URLs answering
+ * 404 or partitions not being created. {@link AotConditionRecorder} writes the build-time values
+ * next to the generated code and this initializer compares them before the context is refreshed.
+ * Without AOT the conditions are evaluated on every start and nothing is checked.
+ */
+public class AotConditionGuard implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+    /** Generated resource holding the switch values seen at build time. */
+    static final String RESOURCE = "META-INF/pexelhub/aot-conditions.properties";
+
+    /** Properties that bean conditions depend on, with the default each condition assumes. */
+    static final Map<String, String> SWITCHES = switches();
+
+    private static Map<String, String> switches() {
+        Map<String, String> switches = new LinkedHashMap<>();
+        switches.put("pexelhub.storage.type", "s3");
+        switches.put("pexelhub.image-proxy.enabled", "false");
+        switches.put("pexelhub.datasource.read-replicas.enabled", "false");
+        switches.put("pexelhub.partitioning.enabled", "false");
+        switches.put("pexelhub.storage.reconciliation.enabled", "false");
+        switches.put("pexelhub.feed.notify.enabled", "true");
+        switches.put("spring.threads.virtual.enabled", "false");
+        return Collections.unmodifiableMap(switches);
+    }
+
+    /**
+     * Reads the effective value of every switch.
+     *
+     * @param properties environment to read from
+     * @return switch values by property name, in declaration order
+     */
+    static Map<String, String> currentValues(PropertyResolver properties) {
+        Map<String, String> values = new LinkedHashMap<>();
+        SWITCHES.forEach((name, defaultValue) ->
+                values.put(name, properties.getProperty(name, defaultValue).trim()));
+        return values;
+    }
+
+    @Override
+    public void initialize(ConfigurableApplicationContext context) {
+        if (!AotDetector.useGeneratedArtifacts()) {
+            return;
+        }
+        ClassPathResource resource = new ClassPathResource(RESOURCE, context.getClassLoader());
+        if (!resource.exists()) {
+            throw new IllegalStateException("Spring AOT is enabled but " + RESOURCE
+                    + " is missing; build with the aot profile or start with -Dspring.aot.enabled=false");
+        }
+        Properties buildTime;
+        try {
+            buildTime = PropertiesLoaderUtils.loadProperties(resource);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read " + RESOURCE, ex);
+        }
+
+        List<String> mismatches = new ArrayList<>();
+        currentValues(context.getEnvironment()).forEach((name, value) -> {
+            String built = buildTime.getProperty(name);
+            if (built != null && !built.equalsIgnoreCase(value)) {
+                mismatches.add(name + "=" + value + " (built with " + built + ")");
+            }
+        });
+        if (!mismatches.isEmpty()) {
+            throw new IllegalStateException("Bean conditions were fixed when this build was AOT-processed, "
+                    + "but these properties now differ: " + String.join(", ", mismatches)
+                    + ". Rebuild with the new values or start with -Dspring.aot.enabled=false");
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.amalitech.pexelhub.config;
+
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
+
+/**
+ * Records, during Spring AOT processing, the value each bean-switching property had, so that
+ * {@link AotConditionGuard} can reject a start with different values.
+ * <p>
+ * Registered in {@code META-INF/spring/aot.factories}; only runs at build time.
+ */
+public class AotConditionRecorder implements BeanFactoryInitializationAotProcessor {
+
+    @Override
+    public BeanFactoryInitializationAotContribution processAheadOfTime(ConfigurableListableBeanFactory beanFactory) {
+        Map<String, String> values = AotConditionGuard.currentValues(beanFactory.getBean(Environment.class));
+        StringBuilder content = new StringBuilder("# Bean condition switches at AOT processing time\n");
+        values.forEach((name, value) -> content.append(name).append('=').append(value).append('\n'));
+        return (generationContext, code) ->
+                generationContext.getGeneratedFiles().addResourceFile(AotConditionGuard.RESOURCE, content);
+    }
+}
@@ -1,27 +1,108 @@
 package com.amalitech.pexelhub.config;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Lazy;
+import software.amazon.awssdk.core.client.config.ClientAsyncConfiguration;
+import software.amazon.awssdk.core.client.config.SdkAdvancedAsyncClientOption;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
+import java.net.URI;
+import java.util.concurrent.Executors;
+
 /**
  * Spring configuration for AWS SDK clients used in the application.
+ * Only active with the S3 storage backend ({@code pexelhub.storage.type=s3}, the default).
+ * <p>
+ * Setting {@code aws.s3.endpoint} points every client at an S3-compatible stand-in
+ * (e.g. MinIO) instead of AWS; such stand-ins usually also need path-style access.
+ * <p>
+ * In virtual-thread mode ({@code spring.threads.virtual.enabled}) blocking S3 calls no longer
+ * tie up scarce platform threads, so the HTTP connection pools rather than the thread pools
+ * become the concurrency limit and should be sized accordingly.
+ * <p>
+ * The clients are created lazily, on their first use, so building their HTTP stacks and
+ * resolving credentials does not add to application startup.
  */
 @Configuration
+@ConditionalOnProperty(name = "pexelhub.storage.type", havingValue = "s3", matchIfMissing = true)
 public class AwsConfig {
 
+    private final Region region;
+    private final String endpoint;
+    private final boolean pathStyleAccess;
+    private final boolean virtualThreads;
+
+    /**
+     * @param region          AWS region of the bucket
+     * @param endpoint        optional S3 endpoint override; blank to use AWS
+     * @param pathStyleAccess whether to address buckets as a path rather than a subdomain
+     * @param virtualThreads  whether the application runs in virtual-thread mode
+     */
+    public AwsConfig(
+            @Value("${aws.region:eu-central-1}") String region,
+            @Value("${aws.s3.endpoint:}") String endpoint,
+            @Value("${aws.s3.path-style-access:false}") boolean pathStyleAccess,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.region = Region.of(region);
+        this.endpoint = endpoint;
+        this.pathStyleAccess = pathStyleAccess;
+        this.virtualThreads = virtualThreads;
+    }
+
     /**
      * Creates a synchronous S3 client.
      *
+     * @param maxConnections size of the HTTP connection pool shared by all blocking S3 calls
      * @return configured S3Client
      */
     @Bean
-    public S3Client s3Client() {
-        return S3Client.builder()
-                .region(Region.EU_CENTRAL_1)
-                .build();
+    @Lazy
+    public S3Client s3Client(@Value("${aws.s3.http.max-connections:50}") int maxConnections) {
+        var builder = S3Client.builder()
+                .region(region)
+                .forcePathStyle(pathStyleAccess)
+                .httpClientBuilder(ApacheHttpClient.builder().maxConnections(maxConnections));
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates an asynchronous S3 client used by the multipart upload engine.
+     * The Netty connection pool is sized so every concurrently uploaded part gets a connection.
+     * In virtual-thread mode future completions run on virtual threads instead of the SDK's
+     * bounded completion pool.
+     *
+     * @param maxConnections maximum number of concurrent HTTP connections to S3
+     * @return configured S3AsyncClient
+     */
+    @Bean
+    @Lazy
+    public S3AsyncClient s3AsyncClient(@Value("${aws.s3.upload.max-connections:64}") int maxConnections) {
+        var builder = S3AsyncClient.builder()
+                .region(region)
+                .forcePathStyle(pathStyleAccess)
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder().maxConcurrency(maxConnections));
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        if (virtualThreads) {
+            builder.asyncConfiguration(ClientAsyncConfiguration.builder()
+                    .advancedOption(SdkAdvancedAsyncClientOption.FUTURE_COMPLETION_EXECUTOR,
+                            Executors.newVirtualThreadPerTaskExecutor())
+                    .build());
+        }
+        return builder.build();
     }
 
     /**
@@ -30,9 +111,16 @@ public class AwsConfig {
      * @return configured S3Presigner
      */
     @Bean
+    @Lazy
     public S3Presigner s3Presigner() {
-        return S3Presigner.builder()
-                .region(Region.EU_CENTRAL_1)
-                .build();
+        var builder = S3Presigner.builder()
+                .region(region)
+                .serviceConfiguration(S3Configuration.builder()
+                        .pathStyleAccessEnabled(pathStyleAccess)
+                        .build());
+        if (!endpoint.isBlank()) {
+            builder.endpointOverride(URI.create(endpoint));
+        }
+        return builder.build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,134 @@
+package com.amalitech.pexelhub.config;
+
+import com.amalitech.pexelhub.datasource.ReadYourWritesFilter;
+import com.amalitech.pexelhub.datasource.ReplicaLagMonitor;
+import com.amalitech.pexelhub.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spring configuration routing read-only transactions to PostgreSQL read replicas.
+ * Only active when {@code pexelhub.datasource.read-replicas.enabled=true}.
+ * <p>
+ * The application's {@link DataSource} becomes a {@link LazyConnectionDataSourceProxy}: a
+ * physical connection is only fetched at the first statement, once the transaction's read-only
+ * flag is known. Read-write work goes to the primary ({@code spring.datasource.*}); read-only
+ * transactions, which includes every Spring Data query method, go to a replica unless the
+ * replica lags or the reads {@linkplain com.amalitech.pexelhub.datasource.ReadRouting must see
+ * recent writes}. Replicas use the primary's credentials.
+ */
+@Configuration
+@ConditionalOnProperty(name = "pexelhub.datasource.read-replicas.enabled", havingValue = "true")
+public class DataSourceRoutingConfig {
+
+    /**
+     * Creates the primary connection pool from the standard {@code spring.datasource} settings.
+     *
+     * @param properties standard data source properties
+     * @return primary pool
+     */
+    @Bean(defaultCandidate = false)
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Creates one read-only pool per replica and the monitor deciding which of them serve reads.
+     *
+     * @param properties    standard data source properties, for credentials and driver
+     * @param urls          JDBC URLs of the replicas
+     * @param poolSize      maximum connections per replica pool
+     * @param maxLag        largest replication lag at which a replica still serves reads
+     * @param checkInterval how often replication lag is sampled
+     * @param meterRegistry registry the lag gauges are published to
+     * @return replica monitor, owning the replica pools
+     */
+    @Bean(defaultCandidate = false)
+    public ReplicaLagMonitor replicaLagMonitor(
+            DataSourceProperties properties,
+            @Value("${pexelhub.datasource.read-replicas.urls}") List<String> urls,
+            @Value("${pexelhub.datasource.read-replicas.pool-size:10}") int poolSize,
+            @Value("${pexelhub.datasource.read-replicas.max-lag:2s}") Duration maxLag,
+            @Value("${pexelhub.datasource.read-replicas.check-interval:1s}") Duration checkInterval,
+            MeterRegistry meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            HikariDataSource replica = properties.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url.strip())
+                    .build();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            // an unreachable replica must not stall reads that could fall back to the primary
+            replica.setConnectionTimeout(Math.max(250, checkInterval.toMillis()));
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(replica);
+        }
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("pexelhub.datasource.read-replicas.urls must list at least one replica");
+        }
+        return new ReplicaLagMonitor(replicas, maxLag, checkInterval, meterRegistry);
+    }
+
+    /**
+     * Creates the data source read-only connections are taken from.
+     *
+     * @param primaryDataSource primary pool, the fallback for reads
+     * @param replicaLagMonitor replica monitor
+     * @return routing data source for reads
+     */
+    @Bean(defaultCandidate = false)
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+            @Qualifier("replicaLagMonitor") ReplicaLagMonitor replicaLagMonitor) {
+        return new ReplicaRoutingDataSource(primaryDataSource, replicaLagMonitor);
+    }
+
+    /**
+     * Creates the application's data source, choosing primary or replica per transaction.
+     *
+     * @param primaryDataSource        primary pool
+     * @param replicaRoutingDataSource source of read-only connections
+     * @return data source used by JPA, JDBC and Flyway
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") HikariDataSource primaryDataSource,
+            @Qualifier("replicaRoutingDataSource") ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+
+    /**
+     * Creates the filter keeping a client's reads on the primary right after its own writes.
+     *
+     * @param window how long after a write the client's reads stay on the primary
+     * @return read-your-writes filter
+     */
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${pexelhub.datasource.read-replicas.read-your-writes-window:5s}") Duration window) {
+        return new ReadYourWritesFilter(window);
+    }
+}
@@ -0,0 +1,37 @@
+package com.amalitech.pexelhub.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Spring configuration for schema migrations on startup.
+ */
+@Configuration
+public class FlywayConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlywayConfig.class);
+
+    /**
+     * Migrates the schema, except during a class-data-sharing training run, which has no
+     * database. Decided at runtime rather than by disabling Flyway, because with Spring AOT the
+     * Flyway beans are fixed at build time.
+     *
+     * @param trainingRun whether this start is a CDS training run
+     * @return migration strategy
+     */
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(
+            @Value("${pexelhub.startup.training-run:false}") boolean trainingRun) {
+        return flyway -> {
+            if (trainingRun) {
+                logger.info("Training run: skipping schema migration");
+                return;
+            }
+            flyway.migrate();
+        };
+    }
+}
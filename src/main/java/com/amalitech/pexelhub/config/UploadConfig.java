@@ -0,0 +1,117 @@
+package com.amalitech.pexelhub.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Spring configuration for the worker pools that process uploaded objects.
+ * <p>
+ * In virtual-thread mode ({@code spring.threads.virtual.enabled}) the pools keep their
+ * concurrency limits but run each task on a virtual thread, so tasks blocked on S3 or JDBC
+ * do not hold platform threads.
+ */
+@Configuration
+public class UploadConfig {
+
+    private final boolean virtualThreads;
+
+    /**
+     * @param virtualThreads whether the application runs in virtual-thread mode
+     */
+    public UploadConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    /**
+     * Creates the executor used to store the files of a batch upload in parallel.
+     * <p>
+     * The pool size is the global cap on concurrent storage writes. When the queue is full the
+     * submitting request thread runs the upload itself, which throttles the caller instead of
+     * queueing without bound.
+     *
+     * @param concurrency   maximum number of objects written concurrently
+     * @param queueCapacity number of pending writes buffered before callers are throttled
+     * @return configured executor
+     */
+    @Bean
+    public ThreadPoolTaskExecutor uploadExecutor(
+            @Value("${pexelhub.upload.batch.concurrency:8}") int concurrency,
+            @Value("${pexelhub.upload.batch.queue-capacity:256}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("upload-");
+        executor.setVirtualThreads(virtualThreads);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Creates the executor that generates resized variants after an upload.
+     * <p>
+     * Resizing is CPU and memory bound, so the pool is kept small and its queue bounded;
+     * submissions beyond the queue are rejected and the photo is served without variants.
+     *
+     * @param workers       number of concurrent resize jobs
+     * @param queueCapacity number of pending resize jobs
+     * @return configured executor
+     */
+    @Bean
+    public ThreadPoolTaskExecutor variantExecutor(
+            @Value("${pexelhub.variants.workers:2}") int workers,
+            @Value("${pexelhub.variants.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("variants-");
+        executor.setVirtualThreads(virtualThreads);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    /**
+     * Creates the worker pool that processes spooled asynchronous uploads.
+     * <p>
+     * The queue bounds how many accepted uploads may wait for a worker; beyond it new
+     * asynchronous uploads are refused rather than spooled without limit.
+     *
+     * @param workers    number of uploads processed concurrently
+     * @param maxPending number of spooled uploads waiting for a worker
+     * @return configured executor
+     */
+    @Bean
+    public ThreadPoolTaskExecutor ingestExecutor(
+            @Value("${pexelhub.upload.async.workers:4}") int workers,
+            @Value("${pexelhub.upload.async.max-pending:1000}") int maxPending) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(maxPending);
+        executor.setThreadNamePrefix("ingest-");
+        executor.setVirtualThreads(virtualThreads);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    /**
+     * Creates the scheduler that re-queues failed asynchronous uploads after their backoff and
+     * purges finished jobs. It only hands work to {@link #ingestExecutor}, so one thread suffices.
+     *
+     * @return configured scheduler
+     */
+    @Bean
+    public ThreadPoolTaskScheduler ingestScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("ingest-retry-");
+        return scheduler;
+    }
+}
@@ -0,0 +1,65 @@
+package com.amalitech.pexelhub.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * Guards the administrative endpoints under {@code /api/v1/admin/}, such as bulk deletion.
+ * <p>
+ * Requests must carry {@code Authorization: Bearer <pexelhub.admin.api-token>}; the token is
+ * compared in constant time. Without a configured token the endpoints are disabled and every
+ * request to them is refused.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class AdminApiFilter extends OncePerRequestFilter {
+
+    static final String ADMIN_PATH = "/api/v1/admin/";
+    private static final String BEARER = "Bearer ";
+    private static final UrlPathHelper PATH_HELPER = new UrlPathHelper();
+
+    private final byte[] token;
+
+    /**
+     * @param token shared secret admin clients present; blank to disable the admin endpoints
+     */
+    public AdminApiFilter(@Value("${pexelhub.admin.api-token:}") String token) {
+        this.token = token.isBlank() ? null : token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // decoded and without path parameters, as handler mappings match it
+        return !PATH_HELPER.getPathWithinApplication(request).startsWith(ADMIN_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (token == null) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN, "Admin API is disabled");
+            return;
+        }
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization == null || !authorization.startsWith(BEARER)
+                || !MessageDigest.isEqual(token, authorization.substring(BEARER.length()).getBytes(StandardCharsets.UTF_8))) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+            response.sendError(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
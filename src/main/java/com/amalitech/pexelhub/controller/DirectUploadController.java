@@ -0,0 +1,77 @@
+package com.amalitech.pexelhub.controller;
+
+import com.amalitech.pexelhub.dto.request.CompleteDirectUploadRequest;
+import com.amalitech.pexelhub.dto.request.DirectUploadRequest;
+import com.amalitech.pexelhub.dto.response.DirectUploadResponse;
+import com.amalitech.pexelhub.exception.FileUploadException;
+import com.amalitech.pexelhub.service.DirectUploadService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * REST controller for uploads that go straight from the browser to storage.
+ * <p>
+ * A client first requests an upload URL, {@code PUT}s the image to it with the returned headers,
+ * then calls the completion endpoint with the returned token.
+ * <p>
+ * Base path: /api/v1/upload/direct
+ */
+@RestController
+@RequestMapping("/api/v1/upload/direct")
+public class DirectUploadController {
+
+    private final DirectUploadService directUploadService;
+
+    /**
+     * @param directUploadService service issuing upload URLs and recording completed uploads
+     */
+    public DirectUploadController(DirectUploadService directUploadService) {
+        this.directUploadService = directUploadService;
+    }
+
+    /**
+     * Issues a presigned upload URL restricted to the declared content type, size and checksum.
+     *
+     * @param request the image to be uploaded
+     * @return 200 OK with the upload URL, headers and completion token; 400 on validation failure
+     */
+    @PostMapping
+    public ResponseEntity<DirectUploadResponse> createUpload(@RequestBody DirectUploadRequest request) {
+        try {
+            return ResponseEntity.ok(directUploadService.createUpload(
+                    request.filename(), request.contentType(), request.size(), request.sha256()));
+        } catch (FileUploadException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Verifies a finished upload and records the photo.
+     *
+     * @param request the completion token and description
+     * @return 200 OK with the photo id; 403 for an invalid or expired token; 400 if the object is
+     * missing or does not match the declared upload
+     */
+    @PostMapping("/complete")
+    public ResponseEntity<Map<String, Object>> completeUpload(@RequestBody CompleteDirectUploadRequest request) {
+        try {
+            String description = request.description() != null ? request.description() : "";
+            UUID photoId = directUploadService.completeUpload(request.token(), description);
+            return ResponseEntity.ok(Map.of("photoId", photoId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(403).build();
+        } catch (FileUploadException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.amalitech.pexelhub.controller;
+
+import com.amalitech.pexelhub.service.PhotoService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+
+/**
+ * Evaluates conditional GET requests ({@code If-None-Match}) against the feed before any page is
+ * loaded or URL signed.
+ * <p>
+ * The entity tag combines the feed's last-modified time and photo count (both cached, see
+ * {@code FeedCache}) with the request's paging parameters and the current presign window. The
+ * window is one refresh margin wide, so a client told {@code 304 Not Modified} never keeps using
+ * signed URLs past their expiry.
+ * <p>
+ * No {@code Last-Modified} is sent and {@code If-Modified-Since} is ignored: the last-modified
+ * time is {@code max(updated_at)}, which deleting a photo does not raise, so a date alone could
+ * not tell that the feed changed. The photo count in the tag does.
+ */
+@Component
+public class FeedValidator {
+
+    /** Caches and proxies may store feed responses but must revalidate them on every use. */
+    static final CacheControl FEED_CACHE_CONTROL = CacheControl.noCache().cachePublic();
+
+    private final PhotoService photoService;
+    private final long presignWindowMillis;
+
+    /**
+     * @param photoService  service providing the feed's last-modified time and count
+     * @param refreshMargin how long before expiry cached signed URLs are replaced
+     */
+    public FeedValidator(
+            PhotoService photoService,
+            @Value("${aws.s3.presign.refresh-margin:2m}") Duration refreshMargin) {
+        this.photoService = photoService;
+        this.presignWindowMillis = refreshMargin.toMillis();
+    }
+
+    /**
+     * Checks the request's {@code If-None-Match} against the current feed state and, for GET/HEAD
+     * requests, sets the {@code ETag} response header. If the client's copy is current the
+     * response status is set to 304 and the caller should return without a body.
+     *
+     * @param request    the current request
+     * @param parameters request parameters that select the representation (cursor, limit, ...)
+     * @return {@code true} if the client's copy is still current
+     */
+    public boolean checkNotModified(WebRequest request, Object... parameters) {
+        long now = System.currentTimeMillis();
+        long windowStart = now - now % presignWindowMillis;
+        long feedModified = photoService.getLastModified()
+                .map(FeedValidator::toEpochMillis)
+                .orElse(0L);
+        long count = photoService.getTotalPhotoCount();
+
+        String etag = Long.toHexString(feedModified)
+                + "-" + Long.toHexString(count)
+                + "-" + Long.toHexString(windowStart)
+                + "-" + Integer.toHexString(Arrays.hashCode(parameters));
+        // signed URLs in the body change with the presign window even when the feed does not
+        return request.checkNotModified(etag);
+    }
+
+    private static long toEpochMillis(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
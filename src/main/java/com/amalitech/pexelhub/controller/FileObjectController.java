@@ -0,0 +1,130 @@
+package com.amalitech.pexelhub.controller;
+
+import com.amalitech.pexelhub.storage.FileRangeWriter;
+import com.amalitech.pexelhub.storage.FileSystemObjectStore;
+import com.amalitech.pexelhub.storage.ObjectStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * REST controller serving objects of the {@link FileSystemObjectStore} through the signed URLs it issues,
+ * with HTTP Range support, and accepting direct uploads to the signed upload URLs it issues.
+ * Objects are served under the image type detected from their content; anything else is sent as
+ * a download, never rendered in this origin.
+ * <p>
+ * Base path: /api/v1/files
+ */
+@RestController
+@RequestMapping("/api/v1/files")
+@ConditionalOnProperty(name = "pexelhub.storage.type", havingValue = "filesystem")
+public class FileObjectController {
+
+    private final FileSystemObjectStore objectStore;
+
+    /**
+     * @param objectStore the filesystem store whose objects are served
+     */
+    public FileObjectController(FileSystemObjectStore objectStore) {
+        this.objectStore = objectStore;
+    }
+
+    /**
+     * Streams an object, or the requested byte range of it.
+     *
+     * @param key       object key (the remainder of the path)
+     * @param expires   URL expiry in epoch seconds
+     * @param signature URL signature
+     * @param request   current request
+     * @param response  response the file is written to
+     * @throws IOException if the file cannot be read
+     */
+    @GetMapping("/{*key}")
+    public void getObject(
+            @PathVariable String key,
+            @RequestParam long expires,
+            @RequestParam String signature,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        String objectKey = key.startsWith("/") ? key.substring(1) : key;
+        Path file;
+        try {
+            file = objectStore.resolveSigned(objectKey, expires, signature);
+        } catch (IllegalArgumentException ex) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        if (file == null) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+        if (!Files.isRegularFile(file)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        // objects are immutable, so the bytes may be cached for as long as the URL is reused
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.maxAge(Duration.ofDays(1)).cachePublic().getHeaderValue());
+        // the type comes from the bytes, never from the uploader's file name in the key
+        FileRangeWriter.writeImage(request, response, file);
+    }
+
+    /**
+     * Stores a direct upload. The URL signature covers the content type, length and SHA-256
+     * declared by the request headers; a body that does not match them is discarded without
+     * touching an object already stored under the key.
+     *
+     * @param key           object key (the remainder of the path)
+     * @param expires       URL expiry in epoch seconds
+     * @param signature     URL signature
+     * @param contentType   declared content type
+     * @param contentLength declared content length
+     * @param checksum      declared base64-encoded SHA-256
+     * @param request       current request, whose body is the object
+     * @param response      response to report the outcome on
+     * @throws IOException if the object cannot be written
+     */
+    @PutMapping("/{*key}")
+    public void putObject(
+            @PathVariable String key,
+            @RequestParam long expires,
+            @RequestParam String signature,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            @RequestHeader(HttpHeaders.CONTENT_LENGTH) long contentLength,
+            @RequestHeader(ObjectStore.CHECKSUM_HEADER) String checksum,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        String objectKey = key.startsWith("/") ? key.substring(1) : key;
+        try {
+            if (!objectStore.verifyUpload(objectKey, expires, signature, contentType, contentLength, checksum)) {
+                response.sendError(HttpServletResponse.SC_FORBIDDEN);
+                return;
+            }
+        } catch (IllegalArgumentException ex) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+
+        if (!objectStore.putVerified(objectKey, request.getInputStream(), contentLength, checksum)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+        response.setStatus(HttpServletResponse.SC_OK);
+    }
+}
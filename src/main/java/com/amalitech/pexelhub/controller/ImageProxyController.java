@@ -0,0 +1,127 @@
+package com.amalitech.pexelhub.controller;
+
+import com.amalitech.pexelhub.service.PhotoVariantPipeline;
+import com.amalitech.pexelhub.service.PhotosDeletedEvent;
+import com.amalitech.pexelhub.storage.DiskImageCache;
+import com.amalitech.pexelhub.storage.FileRangeWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * REST controller serving images through the local {@link DiskImageCache}, as an alternative to
+ * handing out presigned storage URLs.
+ * <p>
+ * URLs are derived from the object key alone, so they never change and browsers and CDNs can cache
+ * the immutable objects for a year. Range requests are honoured, and bodies are handed to the
+ * connector's sendfile where it supports it.
+ * Deleted photos are dropped from the local cache, on this and, through the feed notifications,
+ * on the other instances.
+ * <p>
+ * Base path: /api/v1/images
+ */
+@RestController
+@RequestMapping("/api/v1/images")
+@ConditionalOnProperty(name = "pexelhub.image-proxy.enabled", havingValue = "true")
+public class ImageProxyController {
+
+    private static final String IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable().getHeaderValue();
+
+    private final DiskImageCache imageCache;
+    private final List<Integer> variantWidths;
+
+    /**
+     * @param imageCache    local cache of stored images
+     * @param variantWidths widths resized variants are generated at
+     */
+    public ImageProxyController(
+            DiskImageCache imageCache,
+            @Value("${pexelhub.variants.widths:320,800,1600}") List<Integer> variantWidths) {
+        this.imageCache = imageCache;
+        this.variantWidths = variantWidths;
+    }
+
+    /**
+     * Evicts the objects of deleted photos from the cache, together with every variant key they
+     * could have, so a photo's variants are dropped even when they were generated after it was
+     * loaded for deletion. Clears the whole cache when the deleted keys are unknown.
+     *
+     * @param event the deletion event
+     */
+    @EventListener
+    public void onPhotosDeleted(PhotosDeletedEvent event) {
+        if (event.objectKeys() == null) {
+            imageCache.clear();
+            return;
+        }
+        Set<String> keys = new HashSet<>(event.objectKeys());
+        for (String key : event.objectKeys()) {
+            if (PhotoVariantPipeline.originalKey(key) == null) {
+                variantWidths.forEach(width -> keys.add(PhotoVariantPipeline.variantKey(key, width)));
+            }
+        }
+        imageCache.remove(keys);
+    }
+
+    /**
+     * Streams an image, or the requested byte range of it. Only JPEG, PNG, GIF and WebP content
+     * is served inline; anything else is sent as a download.
+     *
+     * @param key      object key (the remainder of the path); only keys under {@code images/} are served
+     * @param request  current request
+     * @param response response the image is written to
+     * @throws IOException if the image cannot be fetched or sent
+     */
+    @GetMapping("/{*key}")
+    public void getImage(
+            @PathVariable String key,
+            HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+
+        String objectKey = key.startsWith("/") ? key.substring(1) : key;
+        if (!objectKey.startsWith("images/") || objectKey.contains("..")) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+
+        // objects are immutable, so the key identifies the representation
+        response.setHeader(HttpHeaders.CACHE_CONTROL, IMMUTABLE);
+        if (new ServletWebRequest(request, response).checkNotModified(DiskImageCache.cacheName(objectKey))) {
+            return;
+        }
+
+        Path file;
+        try {
+            file = imageCache.get(objectKey);
+        } catch (FileNotFoundException ex) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        // the type comes from the bytes, never from the uploader's file name in the key
+        try {
+            FileRangeWriter.writeImage(request, response, file);
+        } catch (NoSuchFileException ex) {
+            // dropped between lookup and send because photos were deleted; fetch it again once
+            FileRangeWriter.writeImage(request, response, imageCache.get(objectKey));
+        }
+    }
+}
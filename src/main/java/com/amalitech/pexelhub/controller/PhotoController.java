@@ -1,17 +1,28 @@
 package com.amalitech.pexelhub.controller;
 
 import com.amalitech.pexelhub.service.PhotoService;
+import com.amalitech.pexelhub.service.UploadJob;
+import com.amalitech.pexelhub.service.UploadJobService;
 import com.amalitech.pexelhub.dto.response.PhotoResponse;
+import com.amalitech.pexelhub.dto.response.UploadJobResponse;
+import com.amalitech.pexelhub.dto.response.UploadResultResponse;
+import com.amalitech.pexelhub.exception.FileUploadException;
 
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.net.URI;
 import java.util.List;
 import java.util.Map;
 
@@ -25,14 +36,27 @@ import java.util.Map;
 public class PhotoController {
 
     private final PhotoService photoService;
+    private final FeedValidator feedValidator;
+    private final UploadJobService uploadJobService;
+    private final int maxBatchFiles;
 
     /**
      * Constructs the controller with the required PhotoService.
      *
-     * @param photoService service handling photo operations
+     * @param photoService  service handling photo operations
+     * @param feedValidator    evaluates conditional feed requests
+     * @param uploadJobService asynchronous upload ingestion
+     * @param maxBatchFiles maximum number of files accepted by one batch upload
      */
-    public PhotoController(PhotoService photoService) {
+    public PhotoController(
+            PhotoService photoService,
+            FeedValidator feedValidator,
+            UploadJobService uploadJobService,
+            @Value("${pexelhub.upload.batch.max-files:50}") int maxBatchFiles) {
         this.photoService = photoService;
+        this.feedValidator = feedValidator;
+        this.uploadJobService = uploadJobService;
+        this.maxBatchFiles = maxBatchFiles;
     }
 
     /**
@@ -67,21 +91,174 @@ public class PhotoController {
     }
 
     /**
-     * Returns a paginated chunk of photos for infinite scrolling.
+     * Accepts an image for asynchronous upload. The file is spooled to local disk and written to
+     * storage by a background worker, with retries; the response is sent as soon as the request
+     * body has been received.
      *
-     * @param offset zero-based starting index of the page window
+     * @param file        the image file to upload (must be a non-empty image/* type)
+     * @param description optional description for the image; empty by default
+     * @return 202 Accepted with the job and a Location header pointing at its status;
+     * 400 on validation failure; 503 when the ingestion queue is full; 500 on server error
+     */
+    @PostMapping("/upload/async")
+    public ResponseEntity<UploadJobResponse> uploadPhotoAsync(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(value = "description", required = false, defaultValue = "") String description) {
+
+        try {
+            UploadJob job = uploadJobService.accept(file, description);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/v1/upload/jobs/" + job.id()))
+                    .body(UploadJobResponse.from(job));
+        } catch (FileUploadException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "10").build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Reports the state of an asynchronous upload.
+     *
+     * @param jobId id returned when the upload was accepted
+     * @return the job state; 404 if the job is unknown or was purged
+     */
+    @GetMapping("/upload/jobs/{jobId}")
+    public ResponseEntity<UploadJobResponse> getUploadJob(@PathVariable String jobId) {
+        return uploadJobService.find(jobId)
+                .map(UploadJobResponse::from)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Uploads several images in one request. Files are stored concurrently and their metadata
+     * is persisted in a single transaction; each file is reported on individually.
+     *
+     * @param files       the image files to upload
+     * @param description optional description applied to every image; empty by default
+     * @return 200 OK when every file was uploaded; 207 Multi-Status with per-file results when
+     * some failed; 400 when no files or too many files are sent
+     */
+    @PostMapping("/upload/batch")
+    public ResponseEntity<List<UploadResultResponse>> uploadPhotos(
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam(value = "description", required = false, defaultValue = "") String description) {
+
+        if (files.isEmpty() || files.size() > maxBatchFiles) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        List<UploadResultResponse> results = photoService.uploadPhotos(files, description);
+        boolean allUploaded = results.stream().allMatch(UploadResultResponse::uploaded);
+        return ResponseEntity.status(allUploaded ? HttpStatus.OK : HttpStatus.MULTI_STATUS).body(results);
+    }
+
+    /**
+     * Uploads an image sent as the raw request body, streaming it to storage as it arrives.
+     * <p>
+     * Unlike the multipart endpoint, the body is never buffered in full: it is forwarded to S3
+     * in parallel parts while it is still being received, which suits large images.
+     *
+     * @param filename    original file name of the image
+     * @param description optional description for the image; empty by default
+     * @param request     the servlet request whose body carries the image bytes
+     * @return 200 OK when uploaded; 400 on validation failure; 500 on server error
+     * @throws IOException if reading the request body fails
+     */
+    @PostMapping(value = "/upload/stream", consumes = "image/*")
+    public ResponseEntity<String> uploadPhotoStream(
+            @RequestParam("filename") String filename,
+            @RequestParam(value = "description", required = false, defaultValue = "") String description,
+            HttpServletRequest request)
+            throws IOException {
+
+        String contentType = request.getContentType();
+        if (contentType == null || !contentType.startsWith("image/")) {
+            return ResponseEntity.badRequest().body("Only image files are allowed");
+        }
+
+        try {
+            photoService.uploadPhoto(request.getInputStream(), filename, contentType, description);
+            return ResponseEntity.ok("Photo uploaded successfully");
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body("Upload failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Searches photo descriptions, most recent matches first, paged with an opaque keyset cursor.
+     *
+     * @param q      free-text search query
+     * @param cursor opaque cursor from the previous search response; omit for the first page
+     * @param limit  maximum number of items to return
+     * @return map containing keys: photos (List<PhotoResponse>), hasMore (boolean), nextCursor (String);
+     * 400 if the query has no searchable words or the cursor is malformed
+     */
+    @GetMapping("/photos/search")
+    public ResponseEntity<Map<String, Object>> searchPhotos(
+            @RequestParam String q,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        try {
+            return ResponseEntity.ok(photoService.searchPhotos(q, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    /**
+     * Returns the next chunk of photos for infinite scrolling.
+     * <p>
+     * By default the feed is paged with an opaque keyset cursor. Passing {@code offset}
+     * (without a cursor) selects the deprecated offset-based paging, kept only for older clients.
+     * <p>
+     * Supports conditional requests: while no photo has been added, changed or deleted, a request
+     * carrying the previous {@code ETag} is answered with 304 Not Modified without loading the
+     * page or signing URLs.
+     *
+     * @param cursor opaque cursor from the previous response; omit for the first page
+     * @param offset deprecated zero-based starting index of the page window
      * @param limit  maximum number of items to return
-     * @return map containing keys: photos (List<PhotoResponse>), hasMore (boolean),
-     * totalElements (long), currentOffset (int), nextOffset (int)
+     * @param request the current request, used to evaluate its validators
+     * @return map containing keys: photos (List<PhotoResponse>), hasMore (boolean), nextCursor (String);
+     * offset-based responses instead carry totalElements (long), currentOffset (int), nextOffset (int);
+     * 304 Not Modified if the client's copy is current
      */
     @GetMapping("/photos/more")
+    @SuppressWarnings("deprecation") // offset paging is still served to old clients
     public ResponseEntity<Map<String, Object>> getMorePhotos(
-            @RequestParam(defaultValue = "0") int offset,
-            @RequestParam(defaultValue = "5") int limit) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer offset,
+            @RequestParam(defaultValue = "5") int limit,
+            WebRequest request) {
 
         try {
-            Map<String, Object> result = photoService.getPhotos(offset, limit);
-            return ResponseEntity.ok(result);
+            if (feedValidator.checkNotModified(request, cursor, offset, limit)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .cacheControl(FeedValidator.FEED_CACHE_CONTROL)
+                        .build();
+            }
+
+            if (offset != null && cursor == null) {
+                Map<String, Object> result = photoService.getPhotos(offset, limit);
+                return ResponseEntity.ok()
+                        .cacheControl(FeedValidator.FEED_CACHE_CONTROL)
+                        .header("Deprecation", "true")
+                        .body(result);
+            }
+
+            Map<String, Object> result = photoService.getPhotosByCursor(cursor, limit);
+            return ResponseEntity.ok()
+                    .cacheControl(FeedValidator.FEED_CACHE_CONTROL)
+                    .body(result);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError().build();
         }
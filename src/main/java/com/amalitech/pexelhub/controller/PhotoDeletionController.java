@@ -0,0 +1,61 @@
+package com.amalitech.pexelhub.controller;
+
+import com.amalitech.pexelhub.dto.request.DeletePhotosRequest;
+import com.amalitech.pexelhub.service.PhotoDeletionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+/**
+ * REST controller deleting photos in bulk.
+ * <p>
+ * The ids travel in a {@code POST} body rather than a {@code DELETE} request, whose body many
+ * proxies drop. The endpoint is administrative and only reachable with the admin token checked
+ * by {@link AdminApiFilter}.
+ * <p>
+ * Base path: /api/v1/admin/photos/delete
+ */
+@RestController
+@RequestMapping("/api/v1/admin/photos/delete")
+public class PhotoDeletionController {
+
+    private final PhotoDeletionService photoDeletionService;
+    private final int maxIds;
+
+    /**
+     * @param photoDeletionService service deleting the photos and their objects
+     * @param maxIds               maximum number of ids accepted by one request
+     */
+    public PhotoDeletionController(
+            PhotoDeletionService photoDeletionService,
+            @Value("${pexelhub.photos.delete.max-ids:1000}") int maxIds) {
+        this.photoDeletionService = photoDeletionService;
+        this.maxIds = maxIds;
+    }
+
+    /**
+     * Deletes the listed photos in one transaction. Unknown ids are ignored, so retrying a
+     * request is safe.
+     *
+     * @param request ids of the photos to delete
+     * @return 200 OK with the number of deleted photos; 400 when no ids or too many ids are sent
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> deletePhotos(@RequestBody DeletePhotosRequest request) {
+        if (request.ids() == null || request.ids().isEmpty() || request.ids().size() > maxIds
+                || request.ids().contains(null)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        try {
+            return ResponseEntity.ok(Map.of("deleted", photoDeletionService.delete(request.ids())));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.amalitech.pexelhub.controller;
+
+import com.amalitech.pexelhub.service.PhotoExportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Locale;
+
+/**
+ * REST controller exporting the whole photo catalogue as a download.
+ * <p>
+ * The body is written after the handler returns, row by row as the database cursor advances,
+ * so the response starts immediately and memory use does not depend on the number of photos.
+ * <p>
+ * Base path: /api/v1/photos/export
+ */
+@RestController
+@RequestMapping("/api/v1/photos/export")
+@Lazy
+public class PhotoExportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoExportController.class);
+
+    private final PhotoExportService photoExportService;
+
+    /**
+     * @param photoExportService service writing the export
+     */
+    public PhotoExportController(PhotoExportService photoExportService) {
+        this.photoExportService = photoExportService;
+    }
+
+    /**
+     * Streams every photo, most recent first.
+     *
+     * @param format {@code ndjson} (default) or {@code csv}
+     * @return 200 OK with the streamed export as an attachment; 400 for an unknown format
+     */
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> exportPhotos(@RequestParam(defaultValue = "ndjson") String format) {
+        PhotoExportService.Format exportFormat;
+        try {
+            exportFormat = PhotoExportService.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        StreamingResponseBody body = output -> {
+            // headers are already committed; a failure can only cut the download short
+            try {
+                long count = photoExportService.export(exportFormat, output);
+                logger.debug("Exported {} photos as {}", count, exportFormat);
+            } catch (RuntimeException e) {
+                logger.error("Photo export failed: {}", e.getMessage(), e);
+                throw e;
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("photos." + exportFormat.extension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+}
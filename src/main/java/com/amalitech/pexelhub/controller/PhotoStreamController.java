@@ -0,0 +1,49 @@
+package com.amalitech.pexelhub.controller;
+
+import com.amalitech.pexelhub.service.PhotoStreamBroadcaster;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * REST controller streaming newly uploaded photos to clients as Server-Sent Events.
+ * <p>
+ * Base path: /api/v1
+ */
+@RestController
+@RequestMapping("/api/v1/")
+public class PhotoStreamController {
+
+    private final PhotoStreamBroadcaster broadcaster;
+
+    /**
+     * @param broadcaster fan-out of upload events to open streams
+     */
+    public PhotoStreamController(PhotoStreamBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    /**
+     * Opens a stream of uploaded photos. Emits {@code photo} events carrying a PhotoResponse and,
+     * if the client falls too far behind, a {@code resync} event after which it should reload
+     * the head of the feed. Idle streams receive keep-alive comments.
+     *
+     * @return the event stream; 503 if the server's stream limit is reached
+     */
+    @GetMapping(value = "/photos/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamPhotos() {
+        try {
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noStore())
+                    // stops reverse proxies such as nginx from buffering the stream
+                    .header("X-Accel-Buffering", "no")
+                    .body(broadcaster.subscribe());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).header("Retry-After", "30").build();
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package com.amalitech.pexelhub.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission control for uploads that pass through this instance.
+ * <p>
+ * An upload is admitted only while fewer than {@code max-concurrent} uploads are running and
+ * the declared sizes of the running uploads, plus its own, fit the {@code max-bytes} budget.
+ * Otherwise it waits in a bounded queue for at most {@code queue-timeout}; when the queue is
+ * full or the wait times out it is rejected with 503 and {@code Retry-After}. Requests without
+ * a {@code Content-Length} are charged the largest accepted object.
+ * <p>
+ * The filter runs before the multipart body is parsed, so a rejected upload never reaches temp
+ * disk or the heap. Queue depth, in-flight uploads, reserved bytes and rejections by reason are
+ * published under {@code pexelhub.upload.admission}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class UploadAdmissionFilter extends OncePerRequestFilter {
+
+    private static final String UPLOAD_PATH = "/api/v1/upload";
+    private static final String FILES_PATH = "/api/v1/files/";
+
+    private final int maxConcurrent;
+    private final long maxBytes;
+    private final int maxQueued;
+    private final long queueTimeoutNanos;
+    private final long unknownLengthCost;
+    private final String retryAfterSeconds;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private int inFlight;
+    private long reservedBytes;
+    private int queued;
+
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+    private final Counter rejectedTooLarge;
+
+    /**
+     * @param maxConcurrent maximum number of uploads processed at once
+     * @param maxBytes      budget for the combined size of the uploads being processed
+     * @param maxQueued     maximum number of uploads waiting for admission
+     * @param queueTimeout  how long an upload waits for admission before it is rejected
+     * @param retryAfter    delay suggested to rejected clients
+     * @param maxObjectSize largest accepted object, charged for uploads of unknown length
+     * @param meterRegistry registry the admission meters are published to
+     */
+    public UploadAdmissionFilter(
+            @Value("${pexelhub.upload.admission.max-concurrent:16}") int maxConcurrent,
+            @Value("${pexelhub.upload.admission.max-bytes:1GB}") DataSize maxBytes,
+            @Value("${pexelhub.upload.admission.max-queued:64}") int maxQueued,
+            @Value("${pexelhub.upload.admission.queue-timeout:2s}") Duration queueTimeout,
+            @Value("${pexelhub.upload.admission.retry-after:5s}") Duration retryAfter,
+            @Value("${pexelhub.storage.max-object-size:50MB}") DataSize maxObjectSize,
+            MeterRegistry meterRegistry) {
+        if (maxConcurrent < 1 || maxQueued < 0) {
+            throw new IllegalArgumentException("pexelhub.upload.admission limits must be positive");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.maxBytes = maxBytes.toBytes();
+        this.maxQueued = maxQueued;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.unknownLengthCost = Math.min(maxObjectSize.toBytes(), this.maxBytes);
+        this.retryAfterSeconds = String.valueOf(Math.max(1, retryAfter.toSeconds()));
+
+        Gauge.builder("pexelhub.upload.admission.queue", this, filter -> filter.snapshot(State.QUEUED))
+                .description("Uploads waiting for admission")
+                .register(meterRegistry);
+        Gauge.builder("pexelhub.upload.admission.in.flight", this, filter -> filter.snapshot(State.IN_FLIGHT))
+                .description("Uploads admitted and not yet finished")
+                .register(meterRegistry);
+        Gauge.builder("pexelhub.upload.admission.bytes", this, filter -> filter.snapshot(State.BYTES))
+                .description("Declared bytes of the admitted uploads")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.rejectedQueueFull = rejectedCounter(meterRegistry, "queue_full");
+        this.rejectedTimeout = rejectedCounter(meterRegistry, "timeout");
+        this.rejectedTooLarge = rejectedCounter(meterRegistry, "too_large");
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("pexelhub.upload.admission.rejected")
+                .description("Uploads rejected by admission control")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (HttpMethod.PUT.matches(request.getMethod())) {
+            // filesystem backend target of direct uploads
+            return !path.startsWith(FILES_PATH);
+        }
+        if (!HttpMethod.POST.matches(request.getMethod())) {
+            return true;
+        }
+        // direct upload requests and completions carry JSON, not image data
+        return !(path.equals(UPLOAD_PATH) || path.startsWith(UPLOAD_PATH + "/"))
+                || path.startsWith(UPLOAD_PATH + "/direct");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long declared = request.getContentLengthLong();
+        if (declared > maxBytes) {
+            rejectedTooLarge.increment();
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE, "Upload exceeds the admission budget");
+            return;
+        }
+        long cost = declared >= 0 ? declared : unknownLengthCost;
+
+        Counter rejection = acquire(cost);
+        if (rejection != null) {
+            rejection.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Upload capacity exhausted, retry later");
+            return;
+        }
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            release(cost);
+        }
+    }
+
+    /**
+     * Waits until the upload fits within both limits.
+     *
+     * @return {@code null} once admitted, otherwise the counter of the rejection reason
+     */
+    private Counter acquire(long cost) {
+        lock.lock();
+        try {
+            if (fits(cost)) {
+                admit(cost);
+                return null;
+            }
+            if (queued >= maxQueued) {
+                return rejectedQueueFull;
+            }
+            queued++;
+            try {
+                long remaining = queueTimeoutNanos;
+                while (!fits(cost)) {
+                    if (remaining <= 0) {
+                        return rejectedTimeout;
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+                admit(cost);
+                return null;
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return rejectedTimeout;
+            } finally {
+                queued--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean fits(long cost) {
+        return inFlight < maxConcurrent && reservedBytes + cost <= maxBytes;
+    }
+
+    private void admit(long cost) {
+        inFlight++;
+        reservedBytes += cost;
+    }
+
+    private void release(long cost) {
+        lock.lock();
+        try {
+            inFlight--;
+            reservedBytes -= cost;
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double snapshot(State state) {
+        lock.lock();
+        try {
+            return switch (state) {
+                case QUEUED -> queued;
+                case IN_FLIGHT -> inFlight;
+                case BYTES -> reservedBytes;
+            };
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private enum State { QUEUED, IN_FLIGHT, BYTES }
+}
@@ -1,9 +1,12 @@
 package com.amalitech.pexelhub.controller;
 
 import com.amalitech.pexelhub.service.PhotoService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Map;
 
@@ -14,30 +17,42 @@ import java.util.Map;
 public class WebController {
 
     private final PhotoService photoService;
+    private final FeedValidator feedValidator;
 
     /**
      * Constructs the web controller with the required PhotoService.
      *
-     * @param photoService service handling photo retrieval for the UI
+     * @param photoService  service handling photo retrieval for the UI
+     * @param feedValidator evaluates conditional page requests
      */
-    public WebController(PhotoService photoService) {
+    public WebController(PhotoService photoService, FeedValidator feedValidator) {
         this.photoService = photoService;
+        this.feedValidator = feedValidator;
     }
 
     /**
      * Renders the index page and populates the model with the first page of photos
      * and metadata required by the client-side infinite scroll.
+     * Answers 304 Not Modified when the client's copy of the page is still current.
      *
-     * @param model the Spring MVC model to be populated
-     * @return name of the Thymeleaf template to render
+     * @param model    the Spring MVC model to be populated
+     * @param request  the current request, used to evaluate its validators
+     * @param response the servlet response
+     * @return name of the Thymeleaf template to render, or {@code null} if not modified
      */
     @GetMapping("/")
-    public String home(Model model) {
-        Map<String, Object> photoPage = photoService.getPhotos(0, 5);
+    public String home(Model model, WebRequest request, HttpServletResponse response) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, FeedValidator.FEED_CACHE_CONTROL.getHeaderValue());
+        if (feedValidator.checkNotModified(request, "home")) {
+            return null;
+        }
+
+        Map<String, Object> photoPage = photoService.getPhotosByCursor(null, 5);
         long totalPhotos = photoService.getTotalPhotoCount();
 
         model.addAttribute("photos", photoPage.get("photos"));
         model.addAttribute("hasMore", photoPage.get("hasMore"));
+        model.addAttribute("nextCursor", photoPage.get("nextCursor"));
         model.addAttribute("totalPhotos", totalPhotos);
 
         return "index";
@@ -0,0 +1,56 @@
+package com.amalitech.pexelhub.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-thread override that sends read-only transactions to the primary instead of a replica.
+ * <p>
+ * Used wherever a read must observe a write that may not have replicated yet: right after a
+ * user's own upload ({@link ReadYourWritesFilter}), when loading a photo that was just inserted,
+ * and when computing values that are cached or used as HTTP validators. Without read replica
+ * routing the override has no effect.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    /**
+     * Runs the reads against the primary database.
+     *
+     * @param reads work that issues the reads
+     * @param <T>   result type
+     * @return the result of {@code reads}
+     */
+    public static <T> T onPrimary(Supplier<T> reads) {
+        Boolean previous = pin();
+        try {
+            return reads.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * @return whether reads on the current thread must go to the primary
+     */
+    public static boolean isPrimaryRequired() {
+        return Boolean.TRUE.equals(PRIMARY.get());
+    }
+
+    static Boolean pin() {
+        Boolean previous = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        return previous;
+    }
+
+    static void restore(Boolean previous) {
+        if (previous == null) {
+            PRIMARY.remove();
+        } else {
+            PRIMARY.set(previous);
+        }
+    }
+}
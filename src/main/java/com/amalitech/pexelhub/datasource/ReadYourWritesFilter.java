@@ -0,0 +1,81 @@
+package com.amalitech.pexelhub.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Gives each client read-your-writes consistency on top of replica routing.
+ * <p>
+ * Any request that may write (anything but GET, HEAD and OPTIONS) sets a short-lived cookie;
+ * while it is present the client's reads go to the primary, so a user never sees a feed that is
+ * missing their own upload. The cookie travels with the client, so this holds across instances.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "pexelhub-rw";
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final Duration window;
+
+    /**
+     * @param window how long after a write the client's reads stay on the primary
+     */
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean write = !READ_METHODS.contains(request.getMethod());
+        if (write) {
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE_NAME, String.valueOf(now + window.toMillis()))
+                    .path("/")
+                    .maxAge(window.toSeconds() + 1)
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build()
+                    .toString());
+        }
+
+        if (!write && pinnedUntil(request) <= now) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Boolean previous = ReadRouting.pin();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReadRouting.restore(previous);
+        }
+    }
+
+    private static long pinnedUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException ex) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,180 @@
+package com.amalitech.pexelhub.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the read replica pools and tracks which replicas are fit to serve reads.
+ * <p>
+ * Each replica's replay lag is sampled every {@code check-interval}. A replica is used only
+ * while it answers, is streaming WAL from the primary and lags it by at most {@code max-lag};
+ * otherwise its reads fall back to the primary until it catches up. Until the first check
+ * completes no replica is used. Replication lag is published as {@code pexelhub.db.replica.lag}
+ * (seconds, NaN if unreachable or not streaming).
+ * <p>
+ * The streaming state is read from {@code pg_stat_wal_receiver}, whose status only roles with
+ * {@code pg_read_all_stats} (e.g. members of {@code pg_monitor}) can see; without it every
+ * replica stays out of rotation.
+ */
+public class ReplicaLagMonitor implements SmartLifecycle, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    /** Replication state of a replica, evaluated by {@link LagSample#lagSeconds()}. */
+    private static final String LAG_QUERY = """
+            SELECT pg_is_in_recovery() AS in_recovery,
+                   EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') AS streaming,
+                   pg_last_wal_receive_lsn() IS NOT DISTINCT FROM pg_last_wal_replay_lsn() AS caught_up,
+                   extract(epoch FROM now() - pg_last_xact_replay_timestamp()) AS replay_age""";
+
+    private final List<HikariDataSource> replicas;
+    private final List<JdbcTemplate> probes;
+    private final double[] lagSeconds;
+    private final double maxLagSeconds;
+    private final Duration checkInterval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("replica-lag-monitor").daemon().factory());
+
+    private volatile List<Integer> healthy = List.of();
+    private volatile boolean running;
+
+    /**
+     * @param replicas      replica pools, in configuration order
+     * @param maxLag        largest replication lag at which a replica still serves reads
+     * @param checkInterval how often lag is sampled
+     * @param meterRegistry registry the lag gauges are published to
+     */
+    public ReplicaLagMonitor(
+            List<HikariDataSource> replicas, Duration maxLag, Duration checkInterval, MeterRegistry meterRegistry) {
+        this.replicas = List.copyOf(replicas);
+        this.maxLagSeconds = maxLag.toMillis() / 1000.0;
+        this.checkInterval = checkInterval;
+        this.lagSeconds = new double[replicas.size()];
+        this.probes = new ArrayList<>();
+        for (int i = 0; i < replicas.size(); i++) {
+            JdbcTemplate probe = new JdbcTemplate(replicas.get(i));
+            probe.setQueryTimeout((int) Math.max(1, checkInterval.toSeconds()));
+            probes.add(probe);
+            lagSeconds[i] = Double.NaN;
+            int index = i;
+            Gauge.builder("pexelhub.db.replica.lag", () -> lagSeconds[index])
+                    .description("Replication lag of a read replica")
+                    .baseUnit("seconds")
+                    .tag("replica", String.valueOf(index))
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * @return the replica pools, in configuration order
+     */
+    public List<HikariDataSource> replicas() {
+        return replicas;
+    }
+
+    /**
+     * @return indexes of the replicas currently fit to serve reads
+     */
+    public List<Integer> healthyReplicas() {
+        return healthy;
+    }
+
+    private void check() {
+        List<Integer> fit = new ArrayList<>();
+        for (int i = 0; i < probes.size(); i++) {
+            double lag;
+            try {
+                LagSample sample = probes.get(i).queryForObject(LAG_QUERY, (row, rowNum) -> new LagSample(
+                        row.getBoolean("in_recovery"),
+                        row.getBoolean("streaming"),
+                        row.getBoolean("caught_up"),
+                        row.getObject("replay_age") != null ? row.getDouble("replay_age") : null));
+                lag = sample != null ? sample.lagSeconds() : Double.NaN;
+            } catch (DataAccessException ex) {
+                logger.debug("Replica {} unreachable: {}", i, ex.getMessage());
+                lag = Double.NaN;
+            }
+            boolean wasHealthy = healthy.contains(i);
+            boolean isHealthy = !Double.isNaN(lag) && lag <= maxLagSeconds;
+            if (wasHealthy != isHealthy) {
+                logger.info("Replica {} {} (lag {}s)", i, isHealthy ? "serving reads" : "taken out of rotation", lag);
+            }
+            lagSeconds[i] = lag;
+            if (isHealthy) {
+                fit.add(i);
+            }
+        }
+        healthy = List.copyOf(fit);
+    }
+
+    /**
+     * One sample of a replica's replication state.
+     *
+     * @param inRecovery whether the server is a standby at all
+     * @param streaming  whether its WAL receiver is connected and streaming from the primary
+     * @param caughtUp   whether everything received has been replayed
+     * @param replayAge  seconds since the last replayed transaction; {@code null} if none yet
+     */
+    record LagSample(boolean inRecovery, boolean streaming, boolean caughtUp, Double replayAge) {
+
+        /**
+         * Evaluates the sample. A caught-up replica counts as current, so an idle primary does
+         * not make it look stale.
+         * That only holds while it is streaming: a disconnected replica has also replayed all it
+         * received, yet falls further behind with every write, by an amount it cannot know.
+         *
+         * @return lag in seconds, or NaN if the replica is not streaming
+         */
+        double lagSeconds() {
+            if (!inRecovery) {
+                return 0;
+            }
+            if (!streaming) {
+                return Double.NaN;
+            }
+            if (caughtUp || replayAge == null) {
+                return 0;
+            }
+            return replayAge;
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        scheduler.scheduleWithFixedDelay(this::check, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        scheduler.shutdownNow();
+        healthy = List.of();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Closes the replica pools.
+     */
+    @Override
+    public void close() {
+        replicas.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,51 @@
+package com.amalitech.pexelhub.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Data source for read-only connections: spreads them round-robin over the replicas the
+ * {@link ReplicaLagMonitor} considers fit, and falls back to the primary when none is or when
+ * the current thread {@linkplain ReadRouting requires the primary}.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final int PRIMARY = -1;
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * @param primary    primary database, used whenever no replica may serve the read
+     * @param lagMonitor source of the replicas and their health
+     */
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        List<? extends DataSource> replicas = lagMonitor.replicas();
+        for (int i = 0; i < replicas.size(); i++) {
+            targets.put(i, replicas.get(i));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (ReadRouting.isPrimaryRequired()) {
+            return PRIMARY;
+        }
+        List<Integer> healthy = lagMonitor.healthyReplicas();
+        if (healthy.isEmpty()) {
+            return PRIMARY;
+        }
+        return healthy.get(Math.floorMod(next.getAndIncrement(), healthy.size()));
+    }
+}
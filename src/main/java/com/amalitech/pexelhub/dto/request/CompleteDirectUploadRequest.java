@@ -0,0 +1,10 @@
+package com.amalitech.pexelhub.dto.request;
+
+/**
+ * DTO completing a direct upload once the image has been written to storage.
+ *
+ * @param token       token returned with the upload URL
+ * @param description optional description text
+ */
+public record CompleteDirectUploadRequest(String token, String description) {
+}
@@ -0,0 +1,12 @@
+package com.amalitech.pexelhub.dto.request;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * DTO listing the photos to delete in one request.
+ *
+ * @param ids ids of the photos to delete
+ */
+public record DeletePhotosRequest(List<UUID> ids) {
+}
@@ -0,0 +1,12 @@
+package com.amalitech.pexelhub.dto.request;
+
+/**
+ * DTO requesting a URL to upload one image directly to storage.
+ *
+ * @param filename    original file name
+ * @param contentType MIME type of the image
+ * @param size        exact size of the image in bytes
+ * @param sha256      hex-encoded SHA-256 of the image
+ */
+public record DirectUploadRequest(String filename, String contentType, long size, String sha256) {
+}
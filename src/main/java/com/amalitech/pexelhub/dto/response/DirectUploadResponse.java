@@ -0,0 +1,21 @@
+package com.amalitech.pexelhub.dto.response;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * DTO describing where and how to upload an image directly to storage.
+ *
+ * @param token     opaque token to pass to the completion endpoint afterwards
+ * @param url       URL to send the image to
+ * @param method    HTTP method of the upload, always {@code PUT}
+ * @param headers   headers the upload must carry exactly as given
+ * @param expiresAt time after which the URL is rejected
+ */
+public record DirectUploadResponse(
+        String token,
+        String url,
+        String method,
+        Map<String, String> headers,
+        Instant expiresAt) {
+}
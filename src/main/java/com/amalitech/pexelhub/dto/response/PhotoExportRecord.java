@@ -0,0 +1,17 @@
+package com.amalitech.pexelhub.dto.response;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One photo in a bulk export.
+ *
+ * @param id          photo id
+ * @param description optional description text
+ * @param url         URL of the original image; presigned unless the image proxy is enabled
+ * @param createdAt   upload time
+ * @param updatedAt   time of the last change, e.g. when variants were added
+ */
+public record PhotoExportRecord(
+        UUID id, String description, String url, LocalDateTime createdAt, LocalDateTime updatedAt) {
+}
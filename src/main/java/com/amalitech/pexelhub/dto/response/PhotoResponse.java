@@ -5,6 +5,14 @@ package com.amalitech.pexelhub.dto.response;
  *
  * @param s3Url       a presigned URL to access the image
  * @param description optional description text
+ * @param srcset      {@code srcset} attribute value listing resized variants by width;
+ *                    {@code null} when no variants exist yet
+ * @param width       displayed width in pixels, so clients can reserve the layout box;
+ *                    {@code null} if unknown
+ * @param height      displayed height in pixels; {@code null} if unknown
+ * @param placeholder tiny preview as a {@code data:} URI to paint while the image loads;
+ *                    {@code null} until generated
  */
-public record PhotoResponse(String s3Url, String description) {
+public record PhotoResponse(
+        String s3Url, String description, String srcset, Integer width, Integer height, String placeholder) {
 }
\ No newline at end of file
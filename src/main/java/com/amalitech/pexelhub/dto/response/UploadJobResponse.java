@@ -0,0 +1,32 @@
+package com.amalitech.pexelhub.dto.response;
+
+import com.amalitech.pexelhub.service.UploadJob;
+
+import java.util.UUID;
+
+/**
+ * DTO reporting the state of an asynchronous upload.
+ *
+ * @param jobId    job id
+ * @param filename original file name as sent by the client
+ * @param status   QUEUED, PROCESSING, RETRYING, COMPLETED or FAILED
+ * @param attempts number of failed attempts so far
+ * @param error    reason for the last failure; {@code null} if none
+ * @param photoId  id of the saved photo once completed
+ */
+public record UploadJobResponse(
+        String jobId,
+        String filename,
+        String status,
+        int attempts,
+        String error,
+        UUID photoId) {
+
+    /**
+     * @param job the job
+     * @return DTO describing the job
+     */
+    public static UploadJobResponse from(UploadJob job) {
+        return new UploadJobResponse(job.id(), job.filename(), job.status().name(), job.attempts(), job.error(), job.photoId());
+    }
+}
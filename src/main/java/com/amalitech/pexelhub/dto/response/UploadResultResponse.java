@@ -0,0 +1,28 @@
+package com.amalitech.pexelhub.dto.response;
+
+/**
+ * DTO reporting the outcome of one file in a batch upload.
+ *
+ * @param filename original file name as sent by the client
+ * @param uploaded whether the file was stored and its metadata persisted
+ * @param error    reason for the failure; {@code null} when uploaded
+ */
+public record UploadResultResponse(String filename, boolean uploaded, String error) {
+
+    /**
+     * @param filename original file name
+     * @return a successful result
+     */
+    public static UploadResultResponse success(String filename) {
+        return new UploadResultResponse(filename, true, null);
+    }
+
+    /**
+     * @param filename original file name
+     * @param error    reason for the failure
+     * @return a failed result
+     */
+    public static UploadResultResponse failure(String filename, String error) {
+        return new UploadResultResponse(filename, false, error);
+    }
+}
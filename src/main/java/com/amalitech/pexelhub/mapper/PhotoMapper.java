@@ -2,62 +2,138 @@ package com.amalitech.pexelhub.mapper;
 
 import com.amalitech.pexelhub.dto.response.PhotoResponse;
 import com.amalitech.pexelhub.model.Photo;
+import com.amalitech.pexelhub.storage.ObjectStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.presigner.S3Presigner;
-import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
-import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
 
 import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 /**
- * Maps Photo entities to PhotoResponse DTOs, generating short-lived presigned URLs
- * for direct S3 access.
+ * Maps Photo entities to PhotoResponse DTOs, generating short-lived signed URLs
+ * for direct object storage access.
+ * <p>
+ * Signed URLs are kept in a bounded cache keyed by object key and reused until they come within
+ * the configured refresh margin of their expiry. This keeps URL signing off the feed hot path
+ * and gives browsers a stable URL to cache against.
+ * <p>
+ * With the image proxy enabled ({@code pexelhub.image-proxy.enabled}) responses instead carry
+ * permanent application URLs served from the local disk cache, and nothing is signed.
  */
 @Component
 public class PhotoMapper {
-    private final S3Presigner s3Presigner;
-    private final String bucketName;
+    /** Path images are served from when the image proxy is enabled. */
+    private static final String IMAGE_PROXY_PREFIX = "/api/v1/images/";
+
+    private final ObjectStore objectStore;
+    private final Duration urlTtl;
+    private final Cache<String, String> presignedUrlCache;
+    private final Timer presignTimer;
+    private final boolean imageProxy;
 
     /**
-     * @param s3Presigner S3 presigner used to create presigned GET URLs
-     * @param bucketName  target S3 bucket name
+     * @param objectStore   object storage used to create signed GET URLs
+     * @param urlTtl        validity of each signed URL
+     * @param refreshMargin how long before expiry a cached URL stops being handed out
+     * @param cacheMaxSize  maximum number of cached URLs
+     * @param meterRegistry registry the cache statistics (including hit rate) and signing
+     *                      latency are published to
+     * @param imageProxy    whether images are served through the application's image proxy
      */
-    public PhotoMapper(S3Presigner s3Presigner, @Value("${aws.s3.bucket.name}") String bucketName) {
-        this.s3Presigner = s3Presigner;
-        this.bucketName = bucketName;
+    public PhotoMapper(
+            ObjectStore objectStore,
+            @Value("${aws.s3.presign.ttl:10m}") Duration urlTtl,
+            @Value("${aws.s3.presign.refresh-margin:2m}") Duration refreshMargin,
+            @Value("${aws.s3.presign.cache.max-size:10000}") long cacheMaxSize,
+            MeterRegistry meterRegistry,
+            @Value("${pexelhub.image-proxy.enabled:false}") boolean imageProxy) {
+        if (refreshMargin.compareTo(urlTtl) >= 0) {
+            throw new IllegalArgumentException("aws.s3.presign.refresh-margin must be shorter than aws.s3.presign.ttl");
+        }
+        this.objectStore = objectStore;
+        this.urlTtl = urlTtl;
+        this.imageProxy = imageProxy;
+        this.presignedUrlCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(urlTtl.minus(refreshMargin))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, presignedUrlCache, "presignedUrls");
+        this.presignTimer = Timer.builder("pexelhub.presign")
+                .description("Latency of signing a URL on a presigned URL cache miss")
+                .register(meterRegistry);
     }
 
     /**
-     * Converts a Photo entity to its DTO, embedding a presigned URL for the file.
+     * Converts a Photo entity to its DTO, embedding a signed URL for the file. Dimensions are
+     * reported as displayed, i.e. swapped for EXIF orientations that rotate the image by 90°.
      *
      * @param photo the photo entity
      * @return DTO representing the photo
      */
     public PhotoResponse toPhotoResponse(Photo photo) {
-        String presignedUrl = generatePresignedUrl(photo.getS3Key());
-        return new PhotoResponse(presignedUrl, photo.getDescription());
+        String presignedUrl = presignedUrl(photo.getS3Key());
+        boolean rotated = photo.getOrientation() != null && photo.getOrientation() >= 5;
+        return new PhotoResponse(
+                presignedUrl,
+                photo.getDescription(),
+                srcset(photo.getVariants()),
+                rotated ? photo.getHeight() : photo.getWidth(),
+                rotated ? photo.getWidth() : photo.getHeight(),
+                photo.getPlaceholder());
     }
 
     /**
-     * Generates a time-limited presigned URL for reading an object from S3.
+     * Builds a {@code srcset} value from the resized variants, smallest first.
      *
-     * @param key the S3 object key
-     * @return URL string valid for a limited duration
+     * @param variants variant keys by width
+     * @return srcset string, or {@code null} if there are no variants
      */
-    private String generatePresignedUrl(String key) {
-        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                .bucket(bucketName)
-                .key(key)
-                .build();
+    private String srcset(Map<String, String> variants) {
+        if (variants == null || variants.isEmpty()) {
+            return null;
+        }
+        return variants.entrySet().stream()
+                .sorted(Comparator.comparingInt(variant -> Integer.parseInt(variant.getKey())))
+                .map(variant -> presignedUrl(variant.getValue()) + " " + variant.getKey() + "w")
+                .collect(Collectors.joining(", "));
+    }
 
-        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-                .signatureDuration(Duration.ofMinutes(10))
-                .getObjectRequest(getObjectRequest)
-                .build();
+    /**
+     * Returns a URL for the object without touching the URL cache, for bulk consumers such as
+     * exports that would otherwise evict every cached feed URL.
+     *
+     * @param key object key
+     * @return proxy path or freshly signed URL
+     */
+    public String exportUrl(String key) {
+        if (imageProxy) {
+            return IMAGE_PROXY_PREFIX + key;
+        }
+        return objectStore.signedUrl(key, urlTtl);
+    }
+
+    private String presignedUrl(String key) {
+        if (imageProxy) {
+            return IMAGE_PROXY_PREFIX + key;
+        }
+        return presignedUrlCache.get(key, cacheKey -> presignTimer.record(() -> objectStore.signedUrl(cacheKey, urlTtl)));
+    }
 
-        PresignedGetObjectRequest presignedRequest = s3Presigner.presignGetObject(presignRequest);
-        return presignedRequest.url().toString();
+    /**
+     * Returns a snapshot of the presigned URL cache statistics.
+     *
+     * @return hit/miss/eviction counters of the URL cache
+     */
+    public CacheStats presignedUrlCacheStats() {
+        return presignedUrlCache.stats();
     }
 }
@@ -0,0 +1,58 @@
+package com.amalitech.pexelhub.model;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import jakarta.persistence.*;
+
+/**
+ * JPA entity recording which photo a completed direct upload produced.
+ * <p>
+ * Keyed by the object key the upload token was issued for, which stays the same when the
+ * photo ends up pointing at an earlier object with the same content. Retried or concurrent
+ * completions of one upload therefore resolve to the same photo.
+ */
+@Entity
+@Table(name = "direct_upload_completions")
+public class DirectUploadCompletion {
+
+  @Id
+  @Column(nullable = false)
+  private String s3Key;
+
+  @Column(nullable = false)
+  private UUID photoId;
+
+  @Column(nullable = false)
+  private LocalDateTime completedAt;
+
+  /** @return the object key the upload was issued for */
+  public String getS3Key() {
+    return s3Key;
+  }
+
+  /** @param s3Key the object key the upload was issued for */
+  public void setS3Key(String s3Key) {
+    this.s3Key = s3Key;
+  }
+
+  /** @return id of the photo recorded for the upload */
+  public UUID getPhotoId() {
+    return photoId;
+  }
+
+  /** @param photoId id of the photo recorded for the upload */
+  public void setPhotoId(UUID photoId) {
+    this.photoId = photoId;
+  }
+
+  /** @return completion timestamp */
+  public LocalDateTime getCompletedAt() {
+    return completedAt;
+  }
+
+  /** @param completedAt completion timestamp */
+  public void setCompletedAt(LocalDateTime completedAt) {
+    this.completedAt = completedAt;
+  }
+}
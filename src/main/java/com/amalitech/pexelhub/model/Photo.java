@@ -1,30 +1,66 @@
 package com.amalitech.pexelhub.model;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.UUID;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 /**
  * JPA entity representing a photo stored in S3 with metadata persisted in the
  * database.
+ * <p>
+ * Photos with identical content share one stored object; {@code contentHash} links the row to
+ * its reference-counted {@link PhotoBlob}, so {@code s3Key} is not unique across photos.
  */
 @Entity
-@Table(name = "images")
+@Table(name = "images", indexes = {
+    @Index(name = "idx_images_created_at_id", columnList = "created_at DESC, id DESC"),
+    @Index(name = "idx_images_content_hash", columnList = "content_hash"),
+    @Index(name = "idx_images_updated_at", columnList = "updated_at")
+})
 public class Photo {
 
+  /** Time-ordered, so new rows append to the primary key index instead of splitting random pages. */
   @Id
-  @GeneratedValue(strategy = GenerationType.UUID)
+  @TimeOrderedUuid
   @Column(unique = true, nullable = false)
   private UUID id;
 
   @Column(length = 500)
   private String description;
 
-  @Column(nullable = false, unique = true)
+  @Column(nullable = false)
   private String s3Key;
 
+  /** Hex-encoded SHA-256 of the object content; references {@link PhotoBlob#getContentHash()}. */
+  @Column(length = 64)
+  private String contentHash;
+
+  /** Resized variant keys by width in pixels, e.g. {@code "320" -> "<s3Key>.w320.jpg"}. */
+  @JdbcTypeCode(SqlTypes.JSON)
+  private Map<String, String> variants;
+
+  /** Stored width in pixels, before applying {@code orientation}. */
+  private Integer width;
+
+  /** Stored height in pixels, before applying {@code orientation}. */
+  private Integer height;
+
+  /** Image format as reported by the decoder, e.g. {@code jpeg}. */
+  @Column(length = 16)
+  private String format;
+
+  /** EXIF orientation (1-8). */
+  private Integer orientation;
+
+  /** Tiny blurred preview as a {@code data:} URI, shown until the image itself has loaded. */
+  @Column(length = 2048)
+  private String placeholder;
+
   @NotNull
   private LocalDateTime createdAt;
 
@@ -80,6 +116,79 @@ public class Photo {
     this.s3Key = key;
   }
 
+  /** @return hex-encoded SHA-256 of the object content */
+  public String getContentHash() {
+    return contentHash;
+  }
+
+  /** @param contentHash hex-encoded SHA-256 of the object content */
+  public void setContentHash(String contentHash) {
+    this.contentHash = contentHash;
+  }
+
+  /**
+   * @return resized variant keys by width; {@code null} until variants are generated, empty if
+   * the original is narrower than every variant width
+   */
+  public Map<String, String> getVariants() {
+    return variants;
+  }
+
+  /** @param variants resized variant keys by width */
+  public void setVariants(Map<String, String> variants) {
+    this.variants = variants;
+  }
+
+  /** @return stored width in pixels; {@code null} if unknown */
+  public Integer getWidth() {
+    return width;
+  }
+
+  /** @param width stored width in pixels */
+  public void setWidth(Integer width) {
+    this.width = width;
+  }
+
+  /** @return stored height in pixels; {@code null} if unknown */
+  public Integer getHeight() {
+    return height;
+  }
+
+  /** @param height stored height in pixels */
+  public void setHeight(Integer height) {
+    this.height = height;
+  }
+
+  /** @return image format, e.g. {@code jpeg}; {@code null} if unknown */
+  public String getFormat() {
+    return format;
+  }
+
+  /** @param format image format */
+  public void setFormat(String format) {
+    this.format = format;
+  }
+
+  /** @return EXIF orientation (1-8); {@code null} if unknown */
+  public Integer getOrientation() {
+    return orientation;
+  }
+
+  /** @param orientation EXIF orientation (1-8) */
+  public void setOrientation(Integer orientation) {
+    this.orientation = orientation;
+  }
+
+  /** @return placeholder {@code data:} URI; {@code null} until generated */
+  public String getPlaceholder() {
+    return placeholder;
+  }
+
+  /** @param placeholder placeholder {@code data:} URI */
+  public void setPlaceholder(String placeholder) {
+    this.placeholder = placeholder;
+  }
+
   /** @return creation timestamp */
   public LocalDateTime getCreatedAt() {
     return createdAt;
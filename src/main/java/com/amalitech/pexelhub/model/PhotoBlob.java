@@ -0,0 +1,83 @@
+package com.amalitech.pexelhub.model;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+/**
+ * JPA entity representing one stored object, shared by every {@link Photo} with the same content.
+ * <p>
+ * Uploads are deduplicated by SHA-256: the hash is the primary key (a unique index), and
+ * {@code refCount} tracks how many photos point at the object so it is only deleted from
+ * storage once the last of them is removed.
+ */
+@Entity
+@Table(name = "image_blobs")
+public class PhotoBlob {
+
+  @Id
+  @Column(length = 64, nullable = false)
+  private String contentHash;
+
+  @Column(nullable = false, unique = true)
+  private String s3Key;
+
+  @Column(nullable = false)
+  private long refCount;
+
+  @Column(nullable = false)
+  private long sizeBytes;
+
+  @Column(nullable = false)
+  private LocalDateTime createdAt;
+
+  /** @return hex-encoded SHA-256 of the object content */
+  public String getContentHash() {
+    return contentHash;
+  }
+
+  /** @param contentHash hex-encoded SHA-256 of the object content */
+  public void setContentHash(String contentHash) {
+    this.contentHash = contentHash;
+  }
+
+  /** @return the S3 object key */
+  public String getS3Key() {
+    return s3Key;
+  }
+
+  /** @param s3Key the S3 object key */
+  public void setS3Key(String s3Key) {
+    this.s3Key = s3Key;
+  }
+
+  /** @return number of photos referencing the object */
+  public long getRefCount() {
+    return refCount;
+  }
+
+  /** @param refCount number of photos referencing the object */
+  public void setRefCount(long refCount) {
+    this.refCount = refCount;
+  }
+
+  /** @return object size in bytes */
+  public long getSizeBytes() {
+    return sizeBytes;
+  }
+
+  /** @param sizeBytes object size in bytes */
+  public void setSizeBytes(long sizeBytes) {
+    this.sizeBytes = sizeBytes;
+  }
+
+  /** @return creation timestamp */
+  public LocalDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  /** @param createdAt creation timestamp */
+  public void setCreatedAt(LocalDateTime createdAt) {
+    this.createdAt = createdAt;
+  }
+}
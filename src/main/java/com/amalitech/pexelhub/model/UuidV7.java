@@ -0,0 +1,39 @@
+package com.amalitech.pexelhub.model;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generates time-ordered version 7 UUIDs (RFC 9562).
+ * <p>
+ * The first 48 bits hold the Unix time in milliseconds, so consecutive ids sort together and
+ * B-tree inserts land on the rightmost leaf instead of a random page. The 12 bits after the
+ * version act as a counter that keeps ids generated in the same millisecond strictly increasing
+ * within this JVM; the remaining 62 bits are random.
+ */
+public final class UuidV7 {
+
+  private static final SecureRandom RANDOM = new SecureRandom();
+
+  /** Last issued {@code (unixMillis << 12) | counter}. */
+  private static final AtomicLong LAST = new AtomicLong();
+
+  private UuidV7() {
+  }
+
+  /**
+   * Generates a new id.
+   *
+   * @return a version 7 UUID greater than any previously generated by this JVM
+   */
+  public static UUID generate() {
+    long now = System.currentTimeMillis() << 12;
+    // on counter overflow or a clock step back, borrow from the next millisecond
+    long timeAndCounter = LAST.updateAndGet(last -> Math.max(now, last + 1));
+
+    long msb = (timeAndCounter >>> 12) << 16 | 0x7000L | (timeAndCounter & 0xFFFL);
+    long lsb = RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL | 0x8000000000000000L;
+    return new UUID(msb, lsb);
+  }
+}
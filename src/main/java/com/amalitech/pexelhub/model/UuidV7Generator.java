@@ -0,0 +1,25 @@
+package com.amalitech.pexelhub.model;
+
+import java.util.EnumSet;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+/**
+ * Hibernate id generator backing {@link TimeOrderedUuid}; assigns a {@link UuidV7} before insert.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+  @Override
+  public Object generate(
+      SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+    return UuidV7.generate();
+  }
+
+  @Override
+  public EnumSet<EventType> getEventTypes() {
+    return EventTypeSets.INSERT_ONLY;
+  }
+}
@@ -0,0 +1,43 @@
+package com.amalitech.pexelhub.repository;
+
+import com.amalitech.pexelhub.model.DirectUploadCompletion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository for completed direct uploads. The object key is the primary key, so one upload
+ * can only ever be recorded once.
+ */
+@Repository
+public interface DirectUploadCompletionRepository extends JpaRepository<DirectUploadCompletion, String> {
+    /**
+     * Finds the photo a direct upload produced.
+     *
+     * @param s3Key object key the upload was issued for
+     * @return the photo id, if the upload was completed
+     */
+    @Query("SELECT c.photoId FROM DirectUploadCompletion c WHERE c.s3Key = :s3Key")
+    Optional<UUID> findPhotoIdByS3Key(@Param("s3Key") String s3Key);
+
+    /**
+     * Records a completed upload unless another completion of it was recorded first. Waits for a
+     * concurrent, not yet committed completion of the same upload to finish.
+     *
+     * @param s3Key   object key the upload was issued for
+     * @param photoId id of the photo saved for it
+     * @return 1 if recorded, 0 if the upload was already completed
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO direct_upload_completions (s3_key, photo_id, completed_at)
+            VALUES (:s3Key, :photoId, now())
+            ON CONFLICT (s3_key) DO NOTHING""",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("s3Key") String s3Key, @Param("photoId") UUID photoId);
+}
@@ -0,0 +1,93 @@
+package com.amalitech.pexelhub.repository;
+
+import com.amalitech.pexelhub.model.PhotoBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for deduplicated stored objects with atomic reference counting.
+ * All counter updates are single statements so concurrent uploads and deletes cannot lose updates.
+ */
+@Repository
+public interface PhotoBlobRepository extends JpaRepository<PhotoBlob, String> {
+    /**
+     * Finds the key of the object stored for a content hash.
+     *
+     * @param contentHash hex-encoded SHA-256
+     * @return the object key, if the content is already stored
+     */
+    @Query("SELECT b.s3Key FROM PhotoBlob b WHERE b.contentHash = :contentHash")
+    Optional<String> findS3KeyByContentHash(@Param("contentHash") String contentHash);
+
+    /**
+     * Adds a reference to an existing object.
+     *
+     * @param contentHash hex-encoded SHA-256
+     * @return 1 if the object exists and was referenced, 0 otherwise
+     */
+    @Modifying
+    @Query("UPDATE PhotoBlob b SET b.refCount = b.refCount + 1 WHERE b.contentHash = :contentHash")
+    int incrementRefCount(@Param("contentHash") String contentHash);
+
+    /**
+     * Registers a newly stored object, or adds a reference if another upload registered the
+     * same content first.
+     *
+     * @param contentHash hex-encoded SHA-256
+     * @param s3Key       key the caller stored the content under
+     * @param sizeBytes   object size in bytes
+     * @return number of affected rows
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO image_blobs (content_hash, s3_key, ref_count, size_bytes, created_at)
+            VALUES (:contentHash, :s3Key, 1, :sizeBytes, now())
+            ON CONFLICT (content_hash) DO UPDATE SET ref_count = image_blobs.ref_count + 1""",
+            nativeQuery = true)
+    int upsert(
+            @Param("contentHash") String contentHash,
+            @Param("s3Key") String s3Key,
+            @Param("sizeBytes") long sizeBytes);
+
+    /**
+     * Drops references to an object.
+     *
+     * @param contentHash hex-encoded SHA-256
+     * @param references  number of references to drop
+     * @return number of affected rows
+     */
+    @Modifying
+    @Query("UPDATE PhotoBlob b SET b.refCount = b.refCount - :references WHERE b.contentHash = :contentHash")
+    int decrementRefCount(@Param("contentHash") String contentHash, @Param("references") long references);
+
+    /**
+     * Removes the record of an object nobody references any more.
+     *
+     * @param contentHash hex-encoded SHA-256
+     * @return 1 if the record was removed, 0 if it is still referenced
+     */
+    @Modifying
+    @Query("DELETE FROM PhotoBlob b WHERE b.contentHash = :contentHash AND b.refCount <= 0")
+    int deleteIfUnreferenced(@Param("contentHash") String contentHash);
+
+    /**
+     * Finds which of the given keys are in use, either as a registered object or as the key of a
+     * photo (photos stored before deduplication have no registered object). One set-based lookup
+     * per batch, served by the unique {@code s3_key} index and {@code idx_images_s3_key}.
+     *
+     * @param s3Keys object keys to check
+     * @return the subset of keys that are referenced
+     */
+    @Query(value = """
+            SELECT s3_key FROM image_blobs WHERE s3_key IN (:s3Keys)
+            UNION
+            SELECT s3_key FROM images WHERE s3_key IN (:s3Keys)""", nativeQuery = true)
+    List<String> findReferencedKeys(@Param("s3Keys") Collection<String> s3Keys);
+}
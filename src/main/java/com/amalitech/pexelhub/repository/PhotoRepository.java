@@ -3,22 +3,160 @@ package com.amalitech.pexelhub.repository;
 import com.amalitech.pexelhub.model.Photo;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
- * Repository for Photo entities with a helper query for recent-first pagination.
+ * Repository for Photo entities with helper queries for recent-first pagination.
  */
 @Repository
 public interface PhotoRepository extends JpaRepository<Photo, UUID> {
+    /** Rows fetched per round trip by {@link #streamAll()}. */
+    String STREAM_FETCH_SIZE = "500";
+
     /**
      * Finds a page of photos ordered by most recent first.
      *
      * @param pageable Spring Data pagination information
      * @return a page of photos
+     * @deprecated issues an OFFSET scan plus a count query; use {@link #findLatestPhotos(Pageable)}
+     * and {@link #findPhotosBefore(LocalDateTime, UUID, Pageable)} instead
      */
+    @Deprecated
     @Query("SELECT p FROM Photo p ORDER BY p.createdAt DESC")
     Page<Photo> findPhotos(Pageable pageable);
+
+    /**
+     * Finds the first slice of the feed, most recent first.
+     * Only the page size of the pageable is honoured; no count query is issued.
+     *
+     * @param pageable page size information
+     * @return the newest photos
+     */
+    @Query("SELECT p FROM Photo p ORDER BY p.createdAt DESC, p.id DESC")
+    Slice<Photo> findLatestPhotos(Pageable pageable);
+
+    /**
+     * Finds the slice of the feed that follows the given keyset position.
+     * Served by the {@code (created_at, id)} index as a range scan, so the cost does not grow
+     * with the depth of the page.
+     *
+     * @param createdAt creation timestamp of the last photo already seen
+     * @param id        id of the last photo already seen
+     * @param pageable  page size information
+     * @return photos strictly older than the given position
+     */
+    @Query("""
+            SELECT p FROM Photo p
+            WHERE (p.createdAt, p.id) < (:createdAt, :id)
+            ORDER BY p.createdAt DESC, p.id DESC""")
+    Slice<Photo> findPhotosBefore(
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") UUID id,
+            Pageable pageable);
+
+    /**
+     * Finds the newest photos whose description matches the search, most recent first.
+     * <p>
+     * A photo matches when its {@code search_vector} satisfies the full-text query or when the
+     * raw term is similar to a word of the description ({@code <%}, pg_trgm). Both predicates are
+     * served by GIN indexes, so no query falls back to a {@code LIKE '%term%'} scan.
+     *
+     * @param tsQuery text search query in {@code to_tsquery} syntax, e.g. {@code sun:* & set:*}
+     * @param term    raw search text for the trigram match
+     * @param limit   maximum number of rows
+     * @return matching photos
+     */
+    @Query(value = """
+            SELECT * FROM images
+            WHERE (search_vector @@ to_tsquery('simple', :tsQuery) OR :term <% description)
+            ORDER BY created_at DESC, id DESC
+            LIMIT :limit""", nativeQuery = true)
+    List<Photo> searchLatest(
+            @Param("tsQuery") String tsQuery,
+            @Param("term") String term,
+            @Param("limit") int limit);
+
+    /**
+     * Finds the matching photos that follow the given keyset position; see
+     * {@link #searchLatest(String, String, int)}.
+     *
+     * @param tsQuery   text search query in {@code to_tsquery} syntax
+     * @param term      raw search text for the trigram match
+     * @param createdAt creation timestamp of the last result already seen
+     * @param id        id of the last result already seen
+     * @param limit     maximum number of rows
+     * @return matching photos strictly older than the given position
+     */
+    @Query(value = """
+            SELECT * FROM images
+            WHERE (search_vector @@ to_tsquery('simple', :tsQuery) OR :term <% description)
+              AND (created_at, id) < (:createdAt, :id)
+            ORDER BY created_at DESC, id DESC
+            LIMIT :limit""", nativeQuery = true)
+    List<Photo> searchBefore(
+            @Param("tsQuery") String tsQuery,
+            @Param("term") String term,
+            @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") UUID id,
+            @Param("limit") int limit);
+
+    /**
+     * Streams every photo, most recent first, through a server-side cursor that fetches
+     * {@value #STREAM_FETCH_SIZE} rows at a time. Entities are loaded read-only; callers must
+     * consume the stream inside a transaction and close it.
+     *
+     * @return stream of all photos
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Photo p ORDER BY p.createdAt DESC, p.id DESC")
+    Stream<Photo> streamAll();
+
+    /**
+     * Finds the newest update timestamp of any photo, used as the feed's last-modified time.
+     * Served from the {@code updated_at} index without scanning the table.
+     *
+     * @return newest update timestamp, or empty if there are no photos
+     */
+    @Query("SELECT max(p.updatedAt) FROM Photo p")
+    Optional<LocalDateTime> findLastModified();
+
+    /**
+     * Finds a photo sharing the given content whose resized variants are already generated,
+     * so a duplicate upload can reuse them instead of generating its own.
+     *
+     * @param contentHash hex-encoded SHA-256 of the content
+     * @return a photo with variants, if any
+     */
+    Optional<Photo> findFirstByContentHashAndVariantsIsNotNull(String contentHash);
+
+    /**
+     * Loads the given photos and locks their rows until the end of the transaction, so a
+     * concurrent delete of the same photos waits and then finds them gone instead of giving
+     * back their storage references a second time.
+     *
+     * @param ids photo ids
+     * @return the photos that still exist
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Photo p WHERE p.id IN :ids")
+    List<Photo> lockAllById(@Param("ids") Collection<UUID> ids);
 }
@@ -0,0 +1,97 @@
+package com.amalitech.pexelhub.service;
+
+import com.amalitech.pexelhub.repository.PhotoBlobRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reference-counted registry of deduplicated objects, keyed by content hash.
+ * <p>
+ * A photo takes a reference when it is uploaded and gives it back when it is deleted; the
+ * underlying object may only be removed from storage once {@link #release(String)} reports that
+ * the last reference is gone.
+ */
+@Component
+public class BlobRegistry {
+
+    private final PhotoBlobRepository blobRepository;
+
+    /**
+     * @param blobRepository repository for stored objects
+     */
+    public BlobRegistry(PhotoBlobRepository blobRepository) {
+        this.blobRepository = blobRepository;
+    }
+
+    /**
+     * Takes a reference to already stored content, if any.
+     *
+     * @param contentHash hex-encoded SHA-256
+     * @return key of the existing object, or empty if the content must be stored
+     */
+    @Transactional
+    public Optional<String> acquireExisting(String contentHash) {
+        if (blobRepository.incrementRefCount(contentHash) == 0) {
+            return Optional.empty();
+        }
+        return blobRepository.findS3KeyByContentHash(contentHash);
+    }
+
+    /**
+     * Registers content the caller has just stored and takes a reference to it. If a concurrent
+     * upload of the same content won the race, the reference is taken on its object instead and
+     * the caller should delete its own copy.
+     *
+     * @param contentHash hex-encoded SHA-256
+     * @param s3Key       key the caller stored the content under
+     * @param sizeBytes   object size in bytes
+     * @return key of the object the new reference points at
+     */
+    @Transactional
+    public String register(String contentHash, String s3Key, long sizeBytes) {
+        blobRepository.upsert(contentHash, s3Key, sizeBytes);
+        return blobRepository.findS3KeyByContentHash(contentHash).orElse(s3Key);
+    }
+
+    /**
+     * Gives back a reference.
+     *
+     * @param contentHash hex-encoded SHA-256
+     * @return {@code true} if that was the last reference and the object should be deleted
+     */
+    @Transactional
+    public boolean release(String contentHash) {
+        blobRepository.decrementRefCount(contentHash, 1);
+        return blobRepository.deleteIfUnreferenced(contentHash) > 0;
+    }
+
+    /**
+     * Gives back one reference per element, with one update per distinct content. Rows are
+     * updated in hash order so concurrent bulk releases cannot deadlock.
+     *
+     * @param contentHashes hex-encoded SHA-256 of each released reference; repeats allowed
+     * @return the hashes whose last reference is gone, whose objects should be deleted
+     */
+    @Transactional
+    public Set<String> releaseAll(Collection<String> contentHashes) {
+        Map<String, Long> references = contentHashes.stream()
+                .collect(Collectors.groupingBy(Function.identity(), TreeMap::new, Collectors.counting()));
+        Set<String> released = new TreeSet<>();
+        references.forEach((contentHash, count) -> {
+            blobRepository.decrementRefCount(contentHash, count);
+            if (blobRepository.deleteIfUnreferenced(contentHash) > 0) {
+                released.add(contentHash);
+            }
+        });
+        return released;
+    }
+}
@@ -0,0 +1,178 @@
+package com.amalitech.pexelhub.service;
+
+import com.amalitech.pexelhub.dto.response.DirectUploadResponse;
+import com.amalitech.pexelhub.exception.FileUploadException;
+import com.amalitech.pexelhub.storage.ImageContentType;
+import com.amalitech.pexelhub.storage.ObjectInfo;
+import com.amalitech.pexelhub.storage.ObjectStore;
+import com.amalitech.pexelhub.storage.PresignedUpload;
+import com.amalitech.pexelhub.storage.UrlSigner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Direct-to-storage uploads: the browser writes the image to a presigned URL and only tells the
+ * application when it is done, so image bytes never pass through the JVM.
+ * <p>
+ * The upload URL is signed for the declared content type, exact size and SHA-256, and is handed
+ * out together with an HMAC-signed token recording them. On completion the token is verified,
+ * the object is checked with a metadata lookup (HEAD) against the declared size and checksum,
+ * and the photo is recorded like any other upload, including content deduplication. Completing
+ * the same upload again, also concurrently, returns the photo of the first completion.
+ */
+@Service
+public class DirectUploadService {
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    private final ObjectStore objectStore;
+    private final PhotoService photoService;
+    private final UrlSigner signer;
+    private final Duration ttl;
+    private final long maxObjectSize;
+
+    /**
+     * @param objectStore   object storage the client uploads to
+     * @param photoService  service recording the completed uploads
+     * @param signer        signer for completion tokens
+     * @param ttl           validity of upload URLs; tokens stay valid for twice as long
+     * @param maxObjectSize largest image accepted
+     */
+    public DirectUploadService(
+            ObjectStore objectStore,
+            PhotoService photoService,
+            UrlSigner signer,
+            @Value("${pexelhub.upload.direct.ttl:15m}") Duration ttl,
+            @Value("${pexelhub.storage.max-object-size:50MB}") DataSize maxObjectSize) {
+        this.objectStore = objectStore;
+        this.photoService = photoService;
+        this.signer = signer;
+        this.ttl = ttl;
+        this.maxObjectSize = maxObjectSize.toBytes();
+    }
+
+    /**
+     * Issues an upload URL for one image.
+     *
+     * @param filename    original file name
+     * @param contentType MIME type of the image
+     * @param size        exact size in bytes
+     * @param sha256      hex-encoded SHA-256 of the image
+     * @return the upload URL, the headers to send and the completion token
+     * @throws FileUploadException if the declared upload is not acceptable
+     */
+    public DirectUploadResponse createUpload(String filename, String contentType, long size, String sha256) {
+        if (contentType == null || !contentType.startsWith("image/")) {
+            throw new FileUploadException("Only image files are allowed");
+        }
+        if (filename == null || filename.contains("..")) {
+            throw new FileUploadException("Invalid file name");
+        }
+        // the client picks the key's file name; keep it to types that are safe to serve
+        if (!ImageContentType.hasRasterExtension(filename)) {
+            throw new FileUploadException("Only JPEG, PNG, GIF and WebP files are allowed");
+        }
+        if (size <= 0) {
+            throw new FileUploadException("File cannot be empty");
+        }
+        if (size > maxObjectSize) {
+            throw new FileUploadException("File size exceeds the maximum allowed limit");
+        }
+        if (sha256 == null || !SHA256_HEX.matcher(sha256).matches()) {
+            throw new FileUploadException("A hex-encoded SHA-256 of the file is required");
+        }
+
+        String s3Key = PhotoServiceImpl.objectKey(filename);
+        String checksum = Base64.getEncoder().encodeToString(HexFormat.of().parseHex(sha256));
+        PresignedUpload upload = objectStore.presignPut(s3Key, contentType, size, checksum, ttl);
+
+        long tokenExpires = Instant.now().plus(ttl.multipliedBy(2)).getEpochSecond();
+        String payload = String.join("\n", s3Key, Long.toString(size), sha256, Long.toString(tokenExpires));
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes(StandardCharsets.UTF_8))
+                + "." + signer.sign(payload);
+
+        return new DirectUploadResponse(token, upload.url(), "PUT", upload.headers(), upload.expiresAt());
+    }
+
+    /**
+     * Records the photo for a finished direct upload.
+     *
+     * @param token       token issued with the upload URL
+     * @param description optional description text
+     * @return id of the photo
+     * @throws IllegalArgumentException if the token is malformed, forged or expired
+     * @throws FileUploadException      if the object is missing or does not match the declared upload
+     */
+    public UUID completeUpload(String token, String description) {
+        String[] claims = verifyToken(token);
+        String s3Key = claims[0];
+        long size = Long.parseLong(claims[1]);
+        String sha256 = claims[2];
+
+        // a retry after success must not need the object, which is gone if it was a duplicate
+        Optional<UUID> completed = photoService.findCompletedUpload(s3Key);
+        if (completed.isPresent()) {
+            return completed.get();
+        }
+        try {
+            ObjectInfo object = objectStore.stat(s3Key)
+                    .orElseThrow(() -> new FileUploadException("Upload not found"));
+            String actualSha256 = object.sha256() != null ? object.sha256() : hash(s3Key);
+            if (object.size() != size || !actualSha256.equals(sha256)) {
+                objectStore.delete(s3Key);
+                throw new FileUploadException("Uploaded file does not match the declared size or checksum");
+            }
+            return photoService.registerStoredPhoto(s3Key, sha256, size, description);
+        } catch (IOException ex) {
+            throw new FileUploadException("Failed to verify upload: " + ex.getMessage(), ex);
+        }
+    }
+
+    private String[] verifyToken(String token) {
+        int separator = token == null ? -1 : token.indexOf('.');
+        if (separator < 0) {
+            throw new IllegalArgumentException("Invalid upload token");
+        }
+        String payload;
+        try {
+            payload = new String(Base64.getUrlDecoder().decode(token.substring(0, separator)), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("Invalid upload token", ex);
+        }
+        String[] claims = payload.split("\n");
+        if (claims.length != 4 || !signer.verify(payload, token.substring(separator + 1))) {
+            throw new IllegalArgumentException("Invalid upload token");
+        }
+        if (Instant.now().getEpochSecond() > Long.parseLong(claims[3])) {
+            throw new IllegalArgumentException("Upload token expired");
+        }
+        return claims;
+    }
+
+    /**
+     * Hashes a stored object for stores that do not verify checksums themselves.
+     */
+    private String hash(String s3Key) throws IOException {
+        try (DigestInputStream content = new DigestInputStream(objectStore.get(s3Key), MessageDigest.getInstance("SHA-256"))) {
+            content.transferTo(OutputStream.nullOutputStream());
+            return HexFormat.of().formatHex(content.getMessageDigest().digest());
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.amalitech.pexelhub.service;
+
+import com.amalitech.pexelhub.model.Photo;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Application-level cache for the first page of the feed and the total photo count, the two
+ * queries behind every home page view, and for the feed's last-modified time used to answer
+ * conditional requests.
+ * <p>
+ * Entries are keyed by a generation number that is bumped whenever photos are uploaded or
+ * deleted, here or on another instance (see {@link FeedChangeNotifier}). A load racing with an upload is stored
+ * under the old generation and never served, and concurrent misses for the same entry share one
+ * query. The TTL only bounds staleness if a change notification is lost.
+ * <p>
+ * Photo entities rather than responses are cached so presigned URLs keep being refreshed by
+ * the mapper.
+ */
+@Component
+public class FeedCache {
+
+    private final AtomicLong generation = new AtomicLong();
+    private final Cache<PageKey, Slice<Photo>> firstPages;
+    private final Cache<Long, Long> counts;
+    private final Cache<Long, Optional<LocalDateTime>> lastModified;
+
+    /**
+     * @param ttl upper bound on how long an entry is served without a change notification
+     */
+    public FeedCache(@Value("${pexelhub.feed.cache.ttl:60s}") Duration ttl) {
+        this.firstPages = Caffeine.newBuilder()
+                .maximumSize(64)
+                .expireAfterWrite(ttl)
+                .build();
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(4)
+                .expireAfterWrite(ttl)
+                .build();
+        this.lastModified = Caffeine.newBuilder()
+                .maximumSize(4)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Returns the cached first page for the given size, loading it on a miss.
+     *
+     * @param limit  page size
+     * @param loader query producing the first page
+     * @return the first page, most recent first
+     */
+    public Slice<Photo> firstPage(int limit, Supplier<Slice<Photo>> loader) {
+        return firstPages.get(new PageKey(generation.get(), limit), key -> loader.get());
+    }
+
+    /**
+     * Returns the cached total photo count, loading it on a miss.
+     *
+     * @param loader count query
+     * @return total number of photos
+     */
+    public long count(Supplier<Long> loader) {
+        return counts.get(generation.get(), key -> loader.get());
+    }
+
+    /**
+     * Returns the cached time the feed last changed, loading it on a miss.
+     *
+     * @param loader query for the newest update timestamp
+     * @return newest update timestamp, or empty if there are no photos
+     */
+    public Optional<LocalDateTime> lastModified(Supplier<Optional<LocalDateTime>> loader) {
+        return lastModified.get(generation.get(), key -> loader.get());
+    }
+
+    /**
+     * Discards every cached entry.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        firstPages.invalidateAll();
+        counts.invalidateAll();
+        lastModified.invalidateAll();
+    }
+
+    /**
+     * Invalidates the cache when photos are uploaded on this or another instance.
+     *
+     * @param event the upload event
+     */
+    @EventListener
+    public void onPhotoUploaded(PhotoUploadedEvent event) {
+        invalidate();
+    }
+
+    /**
+     * Invalidates the cache when photos are deleted on this or another instance.
+     *
+     * @param event the deletion event
+     */
+    @EventListener
+    public void onPhotosDeleted(PhotosDeletedEvent event) {
+        invalidate();
+    }
+
+    private record PageKey(long generation, int limit) {
+    }
+}
@@ -0,0 +1,222 @@
+package com.amalitech.pexelhub.service;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Relays {@link PhotoUploadedEvent}s and {@link PhotosDeletedEvent}s between application
+ * instances over PostgreSQL {@code LISTEN/NOTIFY}, so per-instance caches and subscribers see
+ * changes made elsewhere.
+ * <p>
+ * Local changes are announced with {@code pg_notify} as {@code <instance>:<ids>} for uploads and
+ * {@code <instance>:deleted:<keys>} for deletions, carrying the newline-separated keys of the
+ * deleted objects for the image proxy cache. Photo ids are not needed to invalidate caches and
+ * are left out; when the keys exceed the 8000-byte payload limit only {@code <instance>:deleted}
+ * is sent and receivers treat every cached object as possibly deleted. A background thread
+ * holding one dedicated pool connection listens on the same channel and republishes other
+ * instances' changes as remote events. Notifications are not durable: whenever the listening connection is
+ * (re)established the {@link FeedCache} is invalidated, since anything sent while it was down
+ * has been missed.
+ */
+@Component
+@ConditionalOnProperty(name = "pexelhub.feed.notify.enabled", havingValue = "true", matchIfMissing = true)
+public class FeedChangeNotifier implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeedChangeNotifier.class);
+
+    private static final String CHANNEL = "photo_feed";
+    private static final String DELETED = "deleted";
+    /** Largest payload sent; PostgreSQL rejects notifications of 8000 bytes or more. */
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final int POLL_TIMEOUT_MILLIS = 10_000;
+    private static final long MAX_RECONNECT_DELAY_MILLIS = 30_000;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FeedCache feedCache;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private volatile boolean running;
+    private Thread listener;
+
+    /**
+     * @param dataSource     pool the listening connection is taken from
+     * @param jdbcTemplate   template used to send notifications
+     * @param eventPublisher publisher for relayed remote events
+     * @param feedCache      cache invalidated when notifications may have been missed
+     */
+    public FeedChangeNotifier(
+            DataSource dataSource,
+            JdbcTemplate jdbcTemplate,
+            ApplicationEventPublisher eventPublisher,
+            FeedCache feedCache) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.feedCache = feedCache;
+    }
+
+    /**
+     * Announces a local upload to the other instances. Failures are logged; the other
+     * instances then catch up when their cache entries expire.
+     *
+     * @param event the upload event
+     */
+    @EventListener
+    public void onPhotoUploaded(PhotoUploadedEvent event) {
+        if (event.remote() || event.photoIds().isEmpty()) {
+            return;
+        }
+        String payload = instanceId + ":" + event.photoIds().stream()
+                .map(UUID::toString)
+                .collect(Collectors.joining(","));
+        notifyOthers(payload, "upload");
+    }
+
+    /**
+     * Announces a local deletion to the other instances. Failures are logged; the other
+     * instances then catch up when their cache entries expire.
+     *
+     * @param event the deletion event
+     */
+    @EventListener
+    public void onPhotosDeleted(PhotosDeletedEvent event) {
+        if (event.remote() || event.photoIds().isEmpty()) {
+            return;
+        }
+        String payload = instanceId + ":" + DELETED;
+        String withKeys = payload + ":" + String.join("\n", event.objectKeys());
+        if (withKeys.getBytes(StandardCharsets.UTF_8).length <= MAX_PAYLOAD_BYTES) {
+            payload = withKeys;
+        }
+        notifyOthers(payload, "deletion");
+    }
+
+    private void notifyOthers(String payload, String change) {
+        try {
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, payload);
+        } catch (DataAccessException ex) {
+            logger.warn("Failed to notify other instances of {}: {}", change, ex.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listener = Thread.ofPlatform().name("feed-listener").daemon().start(this::listen);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        long reconnectDelay = 1_000;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                feedCache.invalidate();
+                reconnectDelay = 1_000;
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(POLL_TIMEOUT_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            relayQuietly(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException ex) {
+                if (!running) {
+                    return;
+                }
+                if (ex instanceof SQLException) {
+                    logger.warn("Lost feed notification connection, retrying in {} ms: {}", reconnectDelay, ex.getMessage());
+                } else {
+                    // whatever it was, dying here would silently end cross-instance invalidation
+                    logger.error("Feed notification listener failed, restarting in {} ms", reconnectDelay, ex);
+                }
+                try {
+                    Thread.sleep(reconnectDelay);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                reconnectDelay = Math.min(reconnectDelay * 2, MAX_RECONNECT_DELAY_MILLIS);
+            }
+        }
+    }
+
+    /**
+     * Relays one notification; a failure, e.g. in a listener of the relayed event, is logged so
+     * the remaining notifications are still delivered.
+     */
+    private void relayQuietly(String payload) {
+        try {
+            relay(payload);
+        } catch (RuntimeException ex) {
+            logger.error("Failed to relay feed notification {}", payload, ex);
+        }
+    }
+
+    private void relay(String payload) {
+        int separator = payload.indexOf(':');
+        if (separator < 0 || payload.substring(0, separator).equals(instanceId)) {
+            return;
+        }
+        String ids = payload.substring(separator + 1);
+        if (ids.equals(DELETED)) {
+            eventPublisher.publishEvent(new PhotosDeletedEvent(List.of(), null, true));
+            return;
+        }
+        if (ids.startsWith(DELETED + ":")) {
+            String keys = ids.substring(DELETED.length() + 1);
+            // deleted photos may share a deduplicated object, so keys can repeat
+            Set<String> objectKeys = keys.isEmpty() ? Set.of() : Arrays.stream(keys.split("\n")).collect(Collectors.toSet());
+            eventPublisher.publishEvent(new PhotosDeletedEvent(List.of(), objectKeys, true));
+            return;
+        }
+        try {
+            List<UUID> photoIds = new ArrayList<>();
+            for (String id : ids.split(",")) {
+                photoIds.add(UUID.fromString(id));
+            }
+            eventPublisher.publishEvent(new PhotoUploadedEvent(List.copyOf(photoIds), true));
+        } catch (IllegalArgumentException ex) {
+            logger.debug("Ignoring malformed feed notification: {}", payload);
+        }
+    }
+}
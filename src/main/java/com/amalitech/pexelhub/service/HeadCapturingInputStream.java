@@ -0,0 +1,65 @@
+package com.amalitech.pexelhub.service;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Passes a stream through unchanged while keeping a copy of its first bytes, so headers can be
+ * inspected after the stream has been consumed elsewhere without reading it twice.
+ */
+class HeadCapturingInputStream extends FilterInputStream {
+
+    private final byte[] head;
+    private int captured;
+
+    /**
+     * @param in    source stream
+     * @param limit number of leading bytes to keep
+     */
+    HeadCapturingInputStream(InputStream in, int limit) {
+        super(in);
+        this.head = new byte[limit];
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0 && captured < head.length) {
+            head[captured++] = (byte) b;
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0 && captured < head.length) {
+            int copy = Math.min(read, head.length - captured);
+            System.arraycopy(buffer, offset, head, captured, copy);
+            captured += copy;
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // skipped bytes would leave a gap in the captured head
+        byte[] discard = new byte[(int) Math.min(n, 8192)];
+        int read = read(discard, 0, discard.length);
+        return Math.max(read, 0);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * @return the bytes read so far, up to the limit
+     */
+    byte[] head() {
+        return Arrays.copyOf(head, captured);
+    }
+}
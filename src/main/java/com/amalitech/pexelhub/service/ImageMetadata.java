@@ -0,0 +1,139 @@
+package com.amalitech.pexelhub.service;
+
+import com.amalitech.pexelhub.model.Photo;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Locale;
+
+/**
+ * Basic facts about an image, read from the first bytes of the file without decoding pixels.
+ *
+ * @param width       stored width in pixels
+ * @param height      stored height in pixels
+ * @param format      lower-case format name, e.g. {@code jpeg} or {@code png}
+ * @param orientation EXIF orientation (1-8); 1 when absent
+ */
+public record ImageMetadata(int width, int height, String format, int orientation) {
+
+    /** Bytes of an upload kept for {@link #read(byte[])}; enough for the headers of common files. */
+    static final int HEAD_SIZE = 256 * 1024;
+
+    private static final int EXIF_ORIENTATION_TAG = 0x0112;
+
+    /**
+     * @return width as displayed, after applying the EXIF orientation
+     */
+    public int displayWidth() {
+        return orientation >= 5 ? height : width;
+    }
+
+    /**
+     * @return height as displayed, after applying the EXIF orientation
+     */
+    public int displayHeight() {
+        return orientation >= 5 ? width : height;
+    }
+
+    /**
+     * Copies the metadata onto a photo.
+     *
+     * @param photo the photo to describe
+     */
+    public void applyTo(Photo photo) {
+        photo.setWidth(width);
+        photo.setHeight(height);
+        photo.setFormat(format);
+        photo.setOrientation(orientation);
+    }
+
+    /**
+     * Reads dimensions and format from the image header and, for JPEG, the EXIF orientation.
+     * Only headers are parsed, so the cost does not depend on the image resolution.
+     *
+     * @param head leading bytes of the file
+     * @return metadata, or {@code null} if the format is unknown or the header is incomplete
+     */
+    public static ImageMetadata read(byte[] head) {
+        try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(head))) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                String format = reader.getFormatName().toLowerCase(Locale.ROOT);
+                int orientation = "jpeg".equals(format) ? exifOrientation(head) : 1;
+                return new ImageMetadata(reader.getWidth(0), reader.getHeight(0), format, orientation);
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Finds the orientation tag in the EXIF block (APP1 segment) of a JPEG.
+     *
+     * @return orientation between 1 and 8; 1 if there is none
+     */
+    static int exifOrientation(byte[] jpeg) {
+        int offset = 2;
+        while (offset + 4 <= jpeg.length && (jpeg[offset] & 0xFF) == 0xFF) {
+            int marker = jpeg[offset + 1] & 0xFF;
+            int length = u16(jpeg, offset + 2, false);
+            if (marker == 0xDA || marker == 0xD9) {
+                // start of scan: all metadata segments come before it
+                break;
+            }
+            int segment = offset + 4;
+            if (marker == 0xE1 && segment + 14 <= jpeg.length
+                    && jpeg[segment] == 'E' && jpeg[segment + 1] == 'x' && jpeg[segment + 2] == 'i'
+                    && jpeg[segment + 3] == 'f') {
+                return tiffOrientation(jpeg, segment + 6, Math.min(jpeg.length, offset + 2 + length));
+            }
+            offset += 2 + length;
+        }
+        return 1;
+    }
+
+    private static int tiffOrientation(byte[] data, int tiff, int end) {
+        boolean littleEndian = data[tiff] == 'I';
+        // the offset is unsigned and comes from the file; compare it as a long so it cannot wrap
+        long ifdOffset = u32(data, tiff + 4, littleEndian);
+        if (ifdOffset < 8 || ifdOffset + 2 > end - tiff) {
+            return 1;
+        }
+        int ifd = tiff + (int) ifdOffset;
+        int entries = u16(data, ifd, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifd + 2 + i * 12;
+            if (entry + 12 > end) {
+                break;
+            }
+            if (u16(data, entry, littleEndian) == EXIF_ORIENTATION_TAG) {
+                int orientation = u16(data, entry + 8, littleEndian);
+                return orientation >= 1 && orientation <= 8 ? orientation : 1;
+            }
+        }
+        return 1;
+    }
+
+    private static int u16(byte[] data, int offset, boolean littleEndian) {
+        int first = data[offset] & 0xFF;
+        int second = data[offset + 1] & 0xFF;
+        return littleEndian ? second << 8 | first : first << 8 | second;
+    }
+
+    private static long u32(byte[] data, int offset, boolean littleEndian) {
+        long high = u16(data, littleEndian ? offset + 2 : offset, littleEndian);
+        long low = u16(data, littleEndian ? offset : offset + 2, littleEndian);
+        return high << 16 | low;
+    }
+}
@@ -0,0 +1,76 @@
+package com.amalitech.pexelhub.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps monthly partitions of the {@code images} table created ahead of time when the table is
+ * partitioned (the {@code partitioned} profile).
+ * <p>
+ * Inserts for a month without a partition would land in the default partition, which then
+ * blocks creating that month's partition, so partitions are created {@code months-ahead} months
+ * in advance. The work is idempotent and cheap, and every instance runs it.
+ */
+@Component
+@ConditionalOnProperty(name = "pexelhub.partitioning.enabled", havingValue = "true")
+public class ImagePartitionMaintainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImagePartitionMaintainer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final Duration checkInterval;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("partition-maintenance").daemon().factory());
+
+    /**
+     * @param jdbcTemplate  template used to call the partition function
+     * @param monthsAhead   number of future months to keep partitions for
+     * @param checkInterval how often partitions are checked
+     */
+    public ImagePartitionMaintainer(
+            JdbcTemplate jdbcTemplate,
+            @Value("${pexelhub.partitioning.months-ahead:3}") int monthsAhead,
+            @Value("${pexelhub.partitioning.check-interval:12h}") Duration checkInterval) {
+        if (monthsAhead < 1) {
+            throw new IllegalArgumentException("pexelhub.partitioning.months-ahead must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.checkInterval = checkInterval;
+    }
+
+    /**
+     * Starts the periodic check once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::createPartitions, 0, checkInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void createPartitions() {
+        try {
+            jdbcTemplate.execute("SELECT create_images_partitions(current_date, " + monthsAhead + ")");
+        } catch (DataAccessException ex) {
+            logger.warn("Failed to create upcoming images partitions: {}", ex.getMessage(), ex);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+}
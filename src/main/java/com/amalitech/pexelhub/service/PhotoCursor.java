@@ -0,0 +1,67 @@
+package com.amalitech.pexelhub.service;
+
+import com.amalitech.pexelhub.model.Photo;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Keyset position in the recent-first photo feed.
+ * <p>
+ * The feed is ordered by {@code (createdAt DESC, id DESC)}; a cursor identifies the last
+ * photo a client has seen so the next page can be fetched with a range predicate instead
+ * of an OFFSET. Clients only ever see the opaque {@link #encode() encoded} form.
+ *
+ * @param createdAt creation timestamp of the last photo returned
+ * @param id        id of the last photo returned, used as a tie-breaker
+ */
+public record PhotoCursor(LocalDateTime createdAt, UUID id) {
+
+    private static final char SEPARATOR = '|';
+
+    /**
+     * Builds the cursor pointing just after the given photo.
+     *
+     * @param photo the last photo of a page
+     * @return cursor positioned after that photo
+     */
+    public static PhotoCursor after(Photo photo) {
+        return new PhotoCursor(photo.getCreatedAt(), photo.getId());
+    }
+
+    /**
+     * Encodes the cursor as an opaque, URL-safe token.
+     *
+     * @return encoded cursor
+     */
+    public String encode() {
+        String raw = createdAt.toString() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a token previously produced by {@link #encode()}.
+     *
+     * @param token the opaque cursor token
+     * @return decoded cursor
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static PhotoCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new PhotoCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Invalid cursor", ex);
+        }
+    }
+}
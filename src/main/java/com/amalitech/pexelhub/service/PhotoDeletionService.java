@@ -0,0 +1,118 @@
+package com.amalitech.pexelhub.service;
+
+import com.amalitech.pexelhub.model.Photo;
+import com.amalitech.pexelhub.repository.PhotoRepository;
+import com.amalitech.pexelhub.storage.ObjectStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Deletes photos in bulk.
+ * <p>
+ * The rows are removed and their storage references given back in one transaction. Objects whose
+ * last reference is gone, together with their resized variants, are deleted only after that
+ * transaction has committed, through the store's batched delete ({@code DeleteObjects} on S3),
+ * so a rolled back deletion never loses an image. An object that fails to delete is left to the
+ * {@link StorageReconciler}.
+ */
+@Service
+public class PhotoDeletionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoDeletionService.class);
+
+    private final PhotoRepository photoRepository;
+    private final BlobRegistry blobRegistry;
+    private final ObjectStore objectStore;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * @param photoRepository     repository for Photo entities
+     * @param blobRegistry        reference-counted registry of stored content
+     * @param objectStore         object storage the images are deleted from
+     * @param transactionTemplate template running the database part in one transaction
+     * @param eventPublisher      publisher for deletion events
+     */
+    public PhotoDeletionService(
+            PhotoRepository photoRepository,
+            BlobRegistry blobRegistry,
+            ObjectStore objectStore,
+            TransactionTemplate transactionTemplate,
+            ApplicationEventPublisher eventPublisher) {
+        this.photoRepository = photoRepository;
+        this.blobRegistry = blobRegistry;
+        this.objectStore = objectStore;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Deletes the given photos. Unknown ids are ignored.
+     *
+     * @param ids photo ids
+     * @return number of photos deleted
+     */
+    public int delete(Collection<UUID> ids) {
+        Deletion deletion = transactionTemplate.execute(status -> deleteRows(ids));
+        if (deletion == null || deletion.photoIds().isEmpty()) {
+            return 0;
+        }
+        if (!deletion.objectKeys().isEmpty()) {
+            try {
+                objectStore.deleteAll(deletion.objectKeys());
+            } catch (IOException | RuntimeException ex) {
+                logger.warn("Failed to delete objects of {} deleted photos, leaving them to reconciliation: {}",
+                        deletion.photoIds().size(), ex.getMessage());
+            }
+        }
+        // published after the objects are gone, so an evicted cache entry cannot be fetched again
+        eventPublisher.publishEvent(new PhotosDeletedEvent(deletion.photoIds(), deletion.objectKeys(), false));
+        return deletion.photoIds().size();
+    }
+
+    private Deletion deleteRows(Collection<UUID> ids) {
+        List<Photo> photos = photoRepository.lockAllById(Set.copyOf(ids));
+        if (photos.isEmpty()) {
+            return new Deletion(List.of(), Set.of());
+        }
+        List<UUID> photoIds = photos.stream().map(Photo::getId).toList();
+        photoRepository.deleteAllByIdInBatch(photoIds);
+
+        Set<String> released = blobRegistry.releaseAll(photos.stream()
+                .map(Photo::getContentHash)
+                .filter(Objects::nonNull)
+                .toList());
+
+        Set<String> objectKeys = new LinkedHashSet<>();
+        for (Photo photo : photos) {
+            // photos stored before deduplication own their object outright
+            if (photo.getContentHash() == null || released.contains(photo.getContentHash())) {
+                objectKeys.add(photo.getS3Key());
+                if (photo.getVariants() != null) {
+                    objectKeys.addAll(photo.getVariants().values());
+                }
+            }
+        }
+        return new Deletion(photoIds, objectKeys);
+    }
+
+    /**
+     * Outcome of the database part of a deletion.
+     *
+     * @param photoIds   ids of the deleted rows
+     * @param objectKeys objects no photo references any more
+     */
+    private record Deletion(List<UUID> photoIds, Set<String> objectKeys) {
+    }
+}
@@ -0,0 +1,170 @@
+package com.amalitech.pexelhub.service;
+
+import com.amalitech.pexelhub.dto.response.PhotoExportRecord;
+import com.amalitech.pexelhub.mapper.PhotoMapper;
+import com.amalitech.pexelhub.model.Photo;
+import com.amalitech.pexelhub.repository.PhotoRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every photo to an output stream in constant memory.
+ * <p>
+ * Rows are read through a server-side cursor ({@link PhotoRepository#streamAll()}) and each
+ * entity is detached as soon as it has been written, so neither the persistence context nor the
+ * output grows with the size of the table. URLs are signed without going through the
+ * {@link PhotoMapper} cache, which would otherwise be flushed of the feed's hot entries.
+ */
+@Service
+@Lazy
+public class PhotoExportService {
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    /** Supported export formats. */
+    public enum Format {
+        /** Newline-delimited JSON, one {@link PhotoExportRecord} per line. */
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        /** RFC 4180 CSV with a header row. */
+        CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    private final PhotoRepository photoRepository;
+    private final PhotoMapper photoMapper;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param photoRepository repository for Photo entities
+     * @param photoMapper     signs the exported image URLs
+     * @param entityManager   persistence context the streamed entities are detached from
+     * @param objectMapper    JSON serializer for NDJSON exports
+     */
+    public PhotoExportService(
+            PhotoRepository photoRepository,
+            PhotoMapper photoMapper,
+            EntityManager entityManager,
+            ObjectMapper objectMapper) {
+        this.photoRepository = photoRepository;
+        this.photoMapper = photoMapper;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes all photos, most recent first. The stream is flushed but not closed.
+     * <p>
+     * Runs in a read-only transaction, which the PostgreSQL driver needs to honour the fetch
+     * size instead of buffering the whole result set.
+     *
+     * @param format output format
+     * @param output destination stream
+     * @return number of photos written
+     * @throws IOException if writing fails
+     */
+    @Transactional(readOnly = true)
+    public long export(Format format, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        try (Stream<Photo> photos = photoRepository.streamAll()) {
+            long count = switch (format) {
+                case NDJSON -> writeNdjson(photos.iterator(), writer);
+                case CSV -> writeCsv(photos.iterator(), writer);
+            };
+            writer.flush();
+            return count;
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
+
+    private long writeNdjson(Iterator<Photo> photos, Writer writer) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.createGenerator(writer)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (photos.hasNext()) {
+                generator.writeObject(next(photos));
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Iterator<Photo> photos, Writer writer) throws IOException {
+        writer.write("id,description,url,created_at,updated_at\r\n");
+        long count = 0;
+        while (photos.hasNext()) {
+            PhotoExportRecord photo = next(photos);
+            writer.write(photo.id().toString());
+            writer.write(',');
+            writer.write(csvField(photo.description()));
+            writer.write(',');
+            writer.write(csvField(photo.url()));
+            writer.write(',');
+            writer.write(String.valueOf(photo.createdAt()));
+            writer.write(',');
+            writer.write(String.valueOf(photo.updatedAt()));
+            writer.write("\r\n");
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Converts the next entity and detaches it so the persistence context stays empty.
+     */
+    private PhotoExportRecord next(Iterator<Photo> photos) {
+        Photo photo = photos.next();
+        entityManager.detach(photo);
+        return new PhotoExportRecord(
+                photo.getId(),
+                photo.getDescription(),
+                photoMapper.exportUrl(photo.getS3Key()),
+                photo.getCreatedAt(),
+                photo.getUpdatedAt());
+    }
+
+    /**
+     * Quotes a CSV field when it contains a delimiter, quote or line break.
+     */
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,117 @@
+package com.amalitech.pexelhub.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Custom meters for the upload path, published through actuator's Prometheus endpoint.
+ * <p>
+ * Splits upload latency into its storage part so a slowdown can be attributed to object storage
+ * rather than the database (timed by Spring Data's {@code spring.data.repository.invocations})
+ * or request handling ({@code http.server.requests}). Tags are limited to small fixed value
+ * sets; keys, file names and ids are never used as tags.
+ */
+@Component
+public class PhotoMetrics {
+
+    /** Storage write of an uploaded original. */
+    public static final String KIND_ORIGINAL = "original";
+    /** Storage write of a generated variant. */
+    public static final String KIND_VARIANT = "variant";
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger uploadsInFlight = new AtomicInteger();
+    private final DistributionSummary uploadSize;
+
+    /**
+     * @param meterRegistry registry the meters are published to
+     */
+    public PhotoMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("pexelhub.upload.in.flight", uploadsInFlight, AtomicInteger::get)
+                .description("Uploads currently being processed")
+                .register(meterRegistry);
+        this.uploadSize = DistributionSummary.builder("pexelhub.upload.size")
+                .description("Size of uploaded images")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Times an upload end to end and counts it as in flight while it runs.
+     *
+     * @param mode   upload mode: single, stream, batch or direct
+     * @param upload the upload
+     * @param <T>    result type
+     * @return the upload's result
+     */
+    public <T> T timeUpload(String mode, Supplier<T> upload) {
+        uploadsInFlight.incrementAndGet();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            T result = upload.get();
+            outcome = "success";
+            return result;
+        } finally {
+            sample.stop(Timer.builder("pexelhub.upload")
+                    .description("End-to-end upload latency, from parsed request to saved metadata")
+                    .tag("mode", mode)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+            uploadsInFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Times a write to object storage.
+     *
+     * @param kind  {@link #KIND_ORIGINAL} or {@link #KIND_VARIANT}
+     * @param write the write
+     * @return number of bytes written
+     * @throws IOException if the write fails
+     */
+    public long timeStoragePut(String kind, StorageWrite write) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "failure";
+        try {
+            long written = write.run();
+            outcome = "success";
+            return written;
+        } finally {
+            sample.stop(Timer.builder("pexelhub.storage.put")
+                    .description("Latency of object storage writes")
+                    .tag("kind", kind)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Records the size of an uploaded image.
+     *
+     * @param bytes image size in bytes
+     */
+    public void recordUploadSize(long bytes) {
+        uploadSize.record(bytes);
+    }
+
+    /**
+     * A write to object storage.
+     */
+    @FunctionalInterface
+    public interface StorageWrite {
+        /**
+         * @return number of bytes written
+         * @throws IOException if the write fails
+         */
+        long run() throws IOException;
+    }
+}
@@ -1,12 +1,16 @@
 package com.amalitech.pexelhub.service;
 
-import com.amalitech.pexelhub.dto.response.PhotoResponse;
+import com.amalitech.pexelhub.dto.response.UploadResultResponse;
 
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 
 /**
  * Service contract for managing photos and their storage.
@@ -22,11 +26,47 @@ public interface PhotoService {
     void uploadPhoto(MultipartFile file, String description);
 
     /**
-     * Retrieves all photos as DTOs. Intended for administrative or non-paginated views.
+     * Streams a photo of unknown length to storage and persists metadata.
+     * The content is forwarded as it is read, without buffering the whole body.
      *
-     * @return list of photo response DTOs
+     * @param content     the raw image bytes; read to the end but not closed
+     * @param filename    original file name, used to build the storage key
+     * @param contentType MIME type of the image
+     * @param description optional description text
+     * @return id of the saved photo
+     */
+    UUID uploadPhoto(InputStream content, String filename, String contentType, String description);
+
+    /**
+     * Records a photo for an object a client has already written to storage directly.
+     * Completing the same object twice, also concurrently, returns the photo of the first completion.
+     *
+     * @param s3Key       key the client uploaded to
+     * @param contentHash verified hex-encoded SHA-256 of the object
+     * @param sizeBytes   object size in bytes
+     * @param description optional description text
+     * @return id of the photo
+     */
+    UUID registerStoredPhoto(String s3Key, String contentHash, long sizeBytes, String description);
+
+    /**
+     * Finds the photo recorded for a direct upload, which may no longer exist under its own key
+     * once it turned out to duplicate stored content.
+     *
+     * @param s3Key key the client uploaded to
+     * @return id of the photo, if the upload was already completed
+     */
+    Optional<UUID> findCompletedUpload(String s3Key);
+
+    /**
+     * Uploads several photos at once. Objects are written to storage concurrently and all
+     * successfully stored photos are persisted in a single transaction.
+     *
+     * @param files       the multipart image files
+     * @param description optional description text applied to every photo
+     * @return one result per file, in the order the files were given
      */
-    List<PhotoResponse> getAllPhotos();
+    List<UploadResultResponse> uploadPhotos(List<MultipartFile> files, String description);
 
     /**
      * Retrieves a paginated window of photos for infinite scrolling.
@@ -34,13 +74,48 @@ public interface PhotoService {
      * @param offset zero-based starting index
      * @param limit  maximum number of items to return
      * @return response map with photos and pagination metadata
+     * @deprecated runs an OFFSET scan and a full count per call; use
+     * {@link #getPhotosByCursor(String, int)} instead
      */
+    @Deprecated
     Map<String, Object> getPhotos(int offset, int limit);
 
+    /**
+     * Retrieves the slice of the feed following the given cursor, most recent first.
+     *
+     * @param cursor opaque cursor from a previous response, or {@code null} for the first page
+     * @param limit  maximum number of items to return
+     * @return response map with keys: photos, hasMore and nextCursor ({@code null} on the last page)
+     * @throws IllegalArgumentException if the cursor is malformed or the limit is not positive
+     */
+    Map<String, Object> getPhotosByCursor(String cursor, int limit);
+
+    /**
+     * Searches photo descriptions, most recent matches first.
+     * <p>
+     * Every word of the query matches as a prefix ({@code sun} finds "sunset"); descriptions
+     * containing a word similar to the query also match, which tolerates small typos.
+     *
+     * @param query  free-text search query
+     * @param cursor opaque cursor from a previous search response, or {@code null} for the first page
+     * @param limit  maximum number of items to return
+     * @return response map with keys: photos, hasMore and nextCursor ({@code null} on the last page)
+     * @throws IllegalArgumentException if the query has no searchable words, the cursor is
+     *                                  malformed or the limit is not positive
+     */
+    Map<String, Object> searchPhotos(String query, String cursor, int limit);
+
     /**
      * Counts total number of photos persisted.
      *
      * @return total count
      */
     long getTotalPhotoCount();
+
+    /**
+     * Returns the time any photo was last added or updated, for use as an HTTP validator.
+     *
+     * @return newest update timestamp, or empty if there are no photos
+     */
+    Optional<LocalDateTime> getLastModified();
 }
\ No newline at end of file
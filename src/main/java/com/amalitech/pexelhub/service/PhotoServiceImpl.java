@@ -1,101 +1,486 @@
 package com.amalitech.pexelhub.service;
 
+import com.amalitech.pexelhub.datasource.ReadRouting;
 import com.amalitech.pexelhub.dto.response.PhotoResponse;
+import com.amalitech.pexelhub.dto.response.UploadResultResponse;
 import com.amalitech.pexelhub.model.Photo;
+import com.amalitech.pexelhub.model.UuidV7;
+import com.amalitech.pexelhub.repository.DirectUploadCompletionRepository;
 import com.amalitech.pexelhub.repository.PhotoRepository;
 import com.amalitech.pexelhub.mapper.PhotoMapper;
 import com.amalitech.pexelhub.exception.FileUploadException;
+import com.amalitech.pexelhub.storage.ObjectStore;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.stereotype.Service;
 
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.List;
+import java.util.Locale;
 import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 /**
- * Default implementation of PhotoService backed by Amazon S3 for object storage
- * and a JPA repository for metadata persistence.
+ * Default implementation of PhotoService backed by an {@link ObjectStore} (Amazon S3 by default)
+ * for object storage and a JPA repository for metadata persistence.
+ * <p>
+ * Uploads are deduplicated by SHA-256 of their content. A photo whose content is already stored
+ * points at the existing object (taking a reference in the {@link BlobRegistry}) instead of
+ * writing a second copy. Objects are written before their photo is saved; if the save fails, the
+ * reference is given back and an object nothing else uses is deleted again.
+ * <p>
+ * The first feed page and the total count are served from the {@link FeedCache}; every
+ * committed upload publishes a {@link PhotoUploadedEvent} that invalidates it.
  */
 @Service
 public class PhotoServiceImpl implements PhotoService {
 
-    private final S3Client s3Client;
+    private static final Logger logger = LoggerFactory.getLogger(PhotoServiceImpl.class);
+
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final Pattern UNSAFE_FILENAME_CHARS = Pattern.compile("[^a-zA-Z0-9.-]");
+    private static final Pattern SEARCH_WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MAX_SEARCH_WORDS = 8;
+    private static final int MAX_SEARCH_LENGTH = 100;
+
+    private final ObjectStore objectStore;
     private final PhotoRepository photoRepository;
     private final PhotoMapper photoMapper;
-    private final String bucketName;
+    private final ThreadPoolTaskExecutor uploadExecutor;
+    private final PhotoVariantPipeline variantPipeline;
+    private final BlobRegistry blobRegistry;
+    private final FeedCache feedCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PhotoMetrics metrics;
+    private final DirectUploadCompletionRepository completionRepository;
+    private final TransactionTemplate transactionTemplate;
 
     /**
      * Creates a new service instance.
      *
-     * @param photoRepository repository for Photo entities
-     * @param s3Client        AWS S3 synchronous client
-     * @param photoMapper     mapper to convert entities to DTOs with presigned URLs
-     * @param bucketName      name of the S3 bucket
+     * @param photoRepository      repository for Photo entities
+     * @param objectStore          object storage the image bytes are written to
+     * @param photoMapper          mapper to convert entities to DTOs with presigned URLs
+     * @param uploadExecutor       bounded pool used to store the files of a batch in parallel
+     * @param variantPipeline      post-upload stage generating resized variants
+     * @param blobRegistry         reference-counted registry of stored content
+     * @param feedCache            cache for the first feed page and the total count
+     * @param eventPublisher       publisher for upload events
+     * @param metrics              upload and storage meters
+     * @param completionRepository repository recording which photo each direct upload produced
+     * @param transactionTemplate  template saving a direct upload's photo and completion together
      */
     public PhotoServiceImpl(
             PhotoRepository photoRepository,
-            S3Client s3Client,
+            ObjectStore objectStore,
             PhotoMapper photoMapper,
-            @Value("${aws.s3.bucket.name}") String bucketName) {
+            @Qualifier("uploadExecutor") ThreadPoolTaskExecutor uploadExecutor,
+            PhotoVariantPipeline variantPipeline,
+            BlobRegistry blobRegistry,
+            FeedCache feedCache,
+            ApplicationEventPublisher eventPublisher,
+            PhotoMetrics metrics,
+            DirectUploadCompletionRepository completionRepository,
+            TransactionTemplate transactionTemplate) {
         this.photoRepository = photoRepository;
-        this.s3Client = s3Client;
+        this.objectStore = objectStore;
         this.photoMapper = photoMapper;
-        this.bucketName = bucketName;
+        this.uploadExecutor = uploadExecutor;
+        this.variantPipeline = variantPipeline;
+        this.blobRegistry = blobRegistry;
+        this.feedCache = feedCache;
+        this.eventPublisher = eventPublisher;
+        this.metrics = metrics;
+        this.completionRepository = completionRepository;
+        this.transactionTemplate = transactionTemplate;
     }
 
     /** {@inheritDoc} */
     @Override
     public void uploadPhoto(MultipartFile file, String description) {
+        metrics.timeUpload("single", () -> {
+            Photo photo = save(storePhoto(file, description));
+            return published(List.of(photo));
+        }).forEach(variantPipeline::submit);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public UUID uploadPhoto(InputStream content, String filename, String contentType, String description) {
+        List<Photo> saved = metrics.timeUpload("stream", () -> {
+            // the body can only be read once, so the hash is computed while it streams to storage
+            StoredObject stored = storeObject(content, filename, contentType, null);
+            metrics.recordUploadSize(stored.sizeBytes());
+            Photo photo = save(toPhoto(stored, description, stored.metadata()));
+            return published(List.of(photo));
+        });
+        saved.forEach(variantPipeline::submit);
+        return saved.get(0).getId();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public UUID registerStoredPhoto(String s3Key, String contentHash, long sizeBytes, String description) {
+        Optional<UUID> completed = findCompletedUpload(s3Key);
+        if (completed.isPresent()) {
+            return completed.get();
+        }
+
+        List<Photo> saved = metrics.timeUpload("direct", () -> {
+            metrics.recordUploadSize(sizeBytes);
+            // the content never passed through here; the variant pipeline fills in the metadata
+            StoredObject stored = registerObject(s3Key, contentHash, sizeBytes, null);
+            Photo unsaved = toPhoto(stored, description, null);
+            Photo photo;
+            try {
+                // the completion record makes concurrent completions of one upload save one photo
+                photo = transactionTemplate.execute(status -> {
+                    Photo candidate = photoRepository.save(unsaved);
+                    if (completionRepository.insertIfAbsent(s3Key, candidate.getId()) == 0) {
+                        status.setRollbackOnly();
+                        return null;
+                    }
+                    return candidate;
+                });
+            } catch (RuntimeException ex) {
+                // the uploaded object is still in place, so the client can retry the completion;
+                // reconciliation removes it if that never happens
+                releaseQuietly(List.of(unsaved), false);
+                throw ex;
+            }
+            if (photo == null) {
+                // a concurrent completion of the same upload saved the photo first
+                releaseQuietly(List.of(unsaved), false);
+                return List.<Photo>of();
+            }
+            if (stored.duplicate()) {
+                // only now that the completion is recorded may the upload's own copy go
+                deleteQuietly(s3Key);
+            }
+            return published(List.of(photo));
+        });
+        if (saved.isEmpty()) {
+            return findCompletedUpload(s3Key)
+                    .orElseThrow(() -> new IllegalStateException("Completion of " + s3Key + " was not recorded"));
+        }
+        saved.forEach(variantPipeline::submit);
+        return saved.get(0).getId();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Optional<UUID> findCompletedUpload(String s3Key) {
+        // a lagging replica could miss a completion recorded moments ago
+        return ReadRouting.onPrimary(() -> completionRepository.findPhotoIdByS3Key(s3Key));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public List<UploadResultResponse> uploadPhotos(List<MultipartFile> files, String description) {
+        return metrics.timeUpload("batch", () -> storeBatch(files, description));
+    }
+
+    private List<UploadResultResponse> storeBatch(List<MultipartFile> files, String description) {
+        List<CompletableFuture<Photo>> uploads = files.stream()
+                .map(file -> CompletableFuture.supplyAsync(() -> storePhoto(file, description), uploadExecutor))
+                .toList();
+
+        UploadResultResponse[] results = new UploadResultResponse[files.size()];
+        List<Photo> photos = new ArrayList<>(files.size());
+        List<Integer> storedIndexes = new ArrayList<>(files.size());
+        for (int i = 0; i < files.size(); i++) {
+            String filename = files.get(i).getOriginalFilename();
+            try {
+                photos.add(uploads.get(i).join());
+                storedIndexes.add(i);
+                results[i] = UploadResultResponse.success(filename);
+            } catch (CompletionException ex) {
+                Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+                results[i] = UploadResultResponse.failure(filename, cause.getMessage());
+            }
+        }
+
+        if (photos.isEmpty()) {
+            return List.of(results);
+        }
+
+        List<Photo> saved;
         try {
-            String originalFilename = file.getOriginalFilename();
-            if (originalFilename == null || originalFilename.contains("..")) {
-                throw new FileUploadException("Invalid file name");
+            // one transaction; inserts are grouped into JDBC batches (hibernate.jdbc.batch_size)
+            saved = photoRepository.saveAll(photos);
+        } catch (RuntimeException ex) {
+            releaseQuietly(photos, true);
+            for (int i : storedIndexes) {
+                results[i] = UploadResultResponse.failure(results[i].filename(), "Failed to save photo metadata");
             }
+            return List.of(results);
+        }
+        // outside the try: once saved, the photos keep their objects even if what follows fails
+        published(saved).forEach(variantPipeline::submit);
+        return List.of(results);
+    }
+
+    /**
+     * Saves a photo whose object is already stored, giving back its storage reference if the
+     * save fails.
+     *
+     * @param photo the unsaved photo
+     * @return the saved photo
+     */
+    private Photo save(Photo photo) {
+        try {
+            return photoRepository.save(photo);
+        } catch (RuntimeException ex) {
+            releaseQuietly(List.of(photo), true);
+            throw ex;
+        }
+    }
 
-            String sanitizedFilename = originalFilename.replaceAll("[^a-zA-Z0-9.-]", "_");
-            String s3Key = "images/" + UUID.randomUUID() + "-" + sanitizedFilename;
+    /**
+     * Gives back the storage references of photos that could not be saved. Failures are only
+     * logged; the {@link StorageReconciler} removes whatever is left behind.
+     *
+     * @param photos        the unsaved photos
+     * @param deleteObjects whether to delete objects that are no longer referenced
+     */
+    private void releaseQuietly(List<Photo> photos, boolean deleteObjects) {
+        try {
+            Set<String> released = blobRegistry.releaseAll(photos.stream().map(Photo::getContentHash).toList());
+            List<String> orphanedKeys = photos.stream()
+                    .filter(photo -> released.contains(photo.getContentHash()))
+                    .map(Photo::getS3Key)
+                    .distinct()
+                    .toList();
+            if (deleteObjects && !orphanedKeys.isEmpty()) {
+                objectStore.deleteAll(orphanedKeys);
+            }
+        } catch (IOException | RuntimeException ex) {
+            logger.warn("Failed to clean up after {} unsaved photos: {}", photos.size(), ex.getMessage());
+        }
+    }
 
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(s3Key)
-                    .contentType(file.getContentType())
-                    .build();
+    /**
+     * Announces committed photos to caches and subscribers.
+     *
+     * @param photos the saved photos
+     * @return the same photos
+     */
+    private List<Photo> published(List<Photo> photos) {
+        eventPublisher.publishEvent(new PhotoUploadedEvent(photos.stream().map(Photo::getId).toList(), false));
+        return photos;
+    }
 
-            s3Client.putObject(putObjectRequest,
-                    RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+    /**
+     * Validates a multipart image and writes it to storage.
+     *
+     * @param file        the multipart image file
+     * @param description optional description text
+     * @return an unsaved Photo pointing at the stored object
+     */
+    private Photo storePhoto(MultipartFile file, String description) {
+        if (file.isEmpty()) {
+            throw new FileUploadException("File cannot be empty");
+        }
 
-            Photo photo = new Photo();
-            photo.setDescription(description);
-            photo.setS3Key(s3Key);
-            photoRepository.save(photo);
+        String contentType = file.getContentType();
+        if (contentType == null || !contentType.startsWith("image/")) {
+            throw new FileUploadException("Only image files are allowed");
+        }
 
+        metrics.recordUploadSize(file.getSize());
+        try {
+            // the part is spooled to local disk, so hashing it first is cheap next to a redundant PUT;
+            // the same pass reads the image header
+            String contentHash;
+            ImageMetadata metadata;
+            try (HeadCapturingInputStream content = new HeadCapturingInputStream(file.getInputStream(), ImageMetadata.HEAD_SIZE)) {
+                contentHash = sha256(content);
+                metadata = ImageMetadata.read(content.head());
+            }
+            try (InputStream content = file.getInputStream()) {
+                return toPhoto(storeObject(content, file.getOriginalFilename(), contentType, contentHash), description, metadata);
+            }
         } catch (IOException ex) {
             throw new FileUploadException("Failed to upload file: " + ex.getMessage(), ex);
         }
     }
 
-    /** {@inheritDoc} */
-    @Override
-    public List<PhotoResponse> getAllPhotos() {
-        return photoRepository.findAll().stream()
-                .map(photoMapper::toPhotoResponse)
-                .collect(Collectors.toList());
+    /**
+     * Stores content unless identical content is already stored, taking a reference to the
+     * object the photo will point at.
+     * <p>
+     * With a known hash an existing object is reused without writing anything. Otherwise the
+     * content is streamed to a fresh key derived from the file name while its SHA-256 is computed
+     * and its header is read; if a concurrent upload registered the same content first, the fresh
+     * copy is deleted again.
+     *
+     * @param content     the image bytes
+     * @param filename    original file name
+     * @param contentType MIME type of the image
+     * @param contentHash SHA-256 of the content if already computed, otherwise {@code null}
+     * @return the stored object the photo should point at
+     */
+    private StoredObject storeObject(InputStream content, String filename, String contentType, String contentHash) {
+        try {
+            if (filename == null || filename.contains("..")) {
+                throw new FileUploadException("Invalid file name");
+            }
+
+            if (contentHash != null) {
+                Optional<String> existingKey = blobRegistry.acquireExisting(contentHash);
+                if (existingKey.isPresent()) {
+                    return new StoredObject(existingKey.get(), contentHash, true, 0, null);
+                }
+            }
+
+            String s3Key = objectKey(filename);
+
+            HeadCapturingInputStream headContent = new HeadCapturingInputStream(content, ImageMetadata.HEAD_SIZE);
+            DigestInputStream digestContent = new DigestInputStream(headContent, newSha256());
+            long size = metrics.timeStoragePut(PhotoMetrics.KIND_ORIGINAL,
+                    () -> objectStore.put(s3Key, contentType, digestContent));
+            String hash = HexFormat.of().formatHex(digestContent.getMessageDigest().digest());
+            StoredObject stored = registerObject(s3Key, hash, size, ImageMetadata.read(headContent.head()));
+            if (stored.duplicate()) {
+                deleteQuietly(s3Key);
+            }
+            return stored;
+
+        } catch (IOException ex) {
+            throw new FileUploadException("Failed to upload file: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Takes a reference to content just written under a fresh key. If the same content is
+     * already stored, the existing object is used instead and the caller deletes the fresh copy.
+     */
+    private StoredObject registerObject(String s3Key, String contentHash, long size, ImageMetadata metadata) {
+        String storedKey = blobRegistry.register(contentHash, s3Key, size);
+        if (!storedKey.equals(s3Key)) {
+            return new StoredObject(storedKey, contentHash, true, size, metadata);
+        }
+        return new StoredObject(s3Key, contentHash, false, size, metadata);
+    }
+
+    /**
+     * Builds an unsaved Photo for a stored object. A duplicate reuses the resized variants,
+     * placeholder and, if not read from this upload, the metadata of an earlier photo with the
+     * same content when they are available.
+     */
+    private Photo toPhoto(StoredObject stored, String description, ImageMetadata metadata) {
+        Photo photo = new Photo();
+        photo.setDescription(description);
+        photo.setS3Key(stored.s3Key());
+        photo.setContentHash(stored.contentHash());
+        if (metadata != null) {
+            metadata.applyTo(photo);
+        }
+        if (stored.duplicate()) {
+            photoRepository.findFirstByContentHashAndVariantsIsNotNull(stored.contentHash())
+                    .ifPresent(original -> {
+                        photo.setVariants(original.getVariants());
+                        photo.setPlaceholder(original.getPlaceholder());
+                        if (metadata == null) {
+                            photo.setWidth(original.getWidth());
+                            photo.setHeight(original.getHeight());
+                            photo.setFormat(original.getFormat());
+                            photo.setOrientation(original.getOrientation());
+                        }
+                    });
+        }
+        return photo;
+    }
+
+    private void deleteQuietly(String s3Key) {
+        try {
+            objectStore.delete(s3Key);
+        } catch (IOException | RuntimeException ex) {
+            logger.warn("Failed to delete duplicate object {}: {}", s3Key, ex.getMessage());
+        }
+    }
+
+    private static String sha256(InputStream content) throws IOException {
+        MessageDigest digest = newSha256();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = content.read(buffer)) != -1) {
+            digest.update(buffer, 0, read);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /**
+     * An object the new photo points at.
+     *
+     * @param s3Key       object key
+     * @param contentHash hex-encoded SHA-256 of the content
+     * @param duplicate   whether the object already existed and no new copy was kept
+     * @param sizeBytes   number of bytes written to storage; 0 if an existing object was reused
+     * @param metadata    image header read while writing; {@code null} if nothing was written
+     *                    or the format is unknown
+     */
+    private record StoredObject(
+            String s3Key, String contentHash, boolean duplicate, long sizeBytes, ImageMetadata metadata) {
+    }
+
+    /**
+     * Builds a fresh, collision-free storage key for an uploaded file. The key embeds a
+     * time-ordered UUID, so keys of recent uploads sort (and are listed) together.
+     *
+     * @param filename original file name
+     * @return object key under {@code images/}
+     */
+    static String objectKey(String filename) {
+        return "images/" + UuidV7.generate() + "-" + sanitizeFilename(filename);
+    }
+
+    /**
+     * Replaces every character outside {@code [a-zA-Z0-9.-]} with an underscore.
+     * Uses a precompiled pattern; {@link String#replaceAll} would recompile it on every upload.
+     *
+     * @param filename original file name
+     * @return storage-safe file name
+     */
+    static String sanitizeFilename(String filename) {
+        return UNSAFE_FILENAME_CHARS.matcher(filename).replaceAll("_");
     }
 
     /** {@inheritDoc} */
     @Override
+    @Deprecated
     public Map<String, Object> getPhotos(int offset, int limit) {
         Pageable pageable = PageRequest.of(offset / limit, limit);
         Page<Photo> photoPage = photoRepository.findPhotos(pageable);
@@ -114,12 +499,109 @@ public class PhotoServiceImpl implements PhotoService {
         return response;
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Object> getPhotosByCursor(String cursor, int limit) {
+        Pageable pageable = PageRequest.of(0, Math.min(limit, MAX_PAGE_SIZE));
+        Slice<Photo> photoSlice;
+        if (cursor == null || cursor.isBlank()) {
+            // cached until the next upload, so it must not be loaded from a lagging replica
+            photoSlice = feedCache.firstPage(pageable.getPageSize(),
+                    () -> ReadRouting.onPrimary(() -> photoRepository.findLatestPhotos(pageable)));
+        } else {
+            PhotoCursor position = PhotoCursor.decode(cursor);
+            photoSlice = photoRepository.findPhotosBefore(position.createdAt(), position.id(), pageable);
+        }
+
+        List<Photo> photos = photoSlice.getContent();
+        List<PhotoResponse> photoResponses = photos.stream()
+                .map(photoMapper::toPhotoResponse)
+                .collect(Collectors.toList());
+
+        String nextCursor = photoSlice.hasNext()
+                ? PhotoCursor.after(photos.get(photos.size() - 1)).encode()
+                : null;
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("photos", photoResponses);
+        response.put("hasMore", photoSlice.hasNext());
+        response.put("nextCursor", nextCursor);
+
+        return response;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Object> searchPhotos(String query, String cursor, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        String tsQuery = prefixQuery(query);
+        String term = query.strip().toLowerCase(Locale.ROOT);
+        if (term.length() > MAX_SEARCH_LENGTH) {
+            term = term.substring(0, MAX_SEARCH_LENGTH);
+        }
+
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        // fetch one extra row to learn whether another page exists without a count query
+        List<Photo> matches;
+        if (cursor == null || cursor.isBlank()) {
+            matches = photoRepository.searchLatest(tsQuery, term, pageSize + 1);
+        } else {
+            PhotoCursor position = PhotoCursor.decode(cursor);
+            matches = photoRepository.searchBefore(tsQuery, term, position.createdAt(), position.id(), pageSize + 1);
+        }
+
+        boolean hasMore = matches.size() > pageSize;
+        List<Photo> photos = hasMore ? matches.subList(0, pageSize) : matches;
+        List<PhotoResponse> photoResponses = photos.stream()
+                .map(photoMapper::toPhotoResponse)
+                .collect(Collectors.toList());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("photos", photoResponses);
+        response.put("hasMore", hasMore);
+        response.put("nextCursor", hasMore ? PhotoCursor.after(photos.get(photos.size() - 1)).encode() : null);
+
+        return response;
+    }
+
     /**
-     * Returns the total count of photos stored.
+     * Turns free text into a {@code to_tsquery} expression matching every word as a prefix.
+     * Only letters and digits survive, so user input can never inject tsquery operators.
+     *
+     * @param query free-text search query
+     * @return tsquery expression, e.g. {@code sun:* & set:*}
+     * @throws IllegalArgumentException if the query contains no letters or digits
+     */
+    static String prefixQuery(String query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Search query is required");
+        }
+        String tsQuery = SEARCH_WORD_SEPARATORS.splitAsStream(query.toLowerCase(Locale.ROOT))
+                .filter(word -> !word.isEmpty())
+                .limit(MAX_SEARCH_WORDS)
+                .map(word -> word + ":*")
+                .collect(Collectors.joining(" & "));
+        if (tsQuery.isEmpty()) {
+            throw new IllegalArgumentException("Search query must contain a word");
+        }
+        return tsQuery;
+    }
+
+    /**
+     * Returns the total count of photos stored, served from the {@link FeedCache}.
      *
      * @return number of photos
      */
     public long getTotalPhotoCount() {
-        return photoRepository.count();
+        return feedCache.count(photoRepository::count);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Optional<LocalDateTime> getLastModified() {
+        // an HTTP validator: a stale value from a replica would answer 304 for a changed feed
+        return feedCache.lastModified(() -> ReadRouting.onPrimary(photoRepository::findLastModified));
     }
 }
\ No newline at end of file
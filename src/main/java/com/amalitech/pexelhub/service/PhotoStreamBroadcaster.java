@@ -0,0 +1,203 @@
+package com.amalitech.pexelhub.service;
+
+import com.amalitech.pexelhub.datasource.ReadRouting;
+import com.amalitech.pexelhub.dto.response.PhotoResponse;
+import com.amalitech.pexelhub.mapper.PhotoMapper;
+import com.amalitech.pexelhub.model.Photo;
+import com.amalitech.pexelhub.repository.PhotoRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes newly uploaded photos to Server-Sent Events subscribers.
+ * <p>
+ * Each committed upload, local or relayed from another instance, is loaded and mapped once and
+ * then offered to every subscriber. Events are loaded one at a time on a single virtual thread,
+ * so every subscriber receives photos in the order they were committed. Subscribers have a
+ * bounded buffer drained by their own virtual thread, so an open stream holds neither a servlet
+ * thread nor a platform thread, and a slow consumer never delays the others. When a buffer
+ * overflows its backlog is dropped and the subscriber is sent a {@code resync} event telling it
+ * to reload the head of the feed instead.
+ */
+@Component
+public class PhotoStreamBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoStreamBroadcaster.class);
+
+    private final PhotoRepository photoRepository;
+    private final PhotoMapper photoMapper;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final Duration heartbeat;
+    private final Duration timeout;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final ExecutorService broadcaster = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("photo-broadcast").factory());
+
+    /**
+     * @param photoRepository repository the uploaded photos are loaded from
+     * @param photoMapper     mapper to convert entities to DTOs with presigned URLs
+     * @param bufferSize      events buffered per subscriber before its backlog is dropped
+     * @param maxSubscribers  maximum number of concurrently open streams
+     * @param heartbeat       interval of keep-alive comments on an idle stream
+     * @param timeout         lifetime of a stream, after which the client reconnects
+     */
+    public PhotoStreamBroadcaster(
+            PhotoRepository photoRepository,
+            PhotoMapper photoMapper,
+            @Value("${pexelhub.feed.stream.buffer-size:32}") int bufferSize,
+            @Value("${pexelhub.feed.stream.max-subscribers:10000}") int maxSubscribers,
+            @Value("${pexelhub.feed.stream.heartbeat:15s}") Duration heartbeat,
+            @Value("${pexelhub.feed.stream.timeout:30m}") Duration timeout) {
+        this.photoRepository = photoRepository;
+        this.photoMapper = photoMapper;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.heartbeat = heartbeat;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Opens a new stream.
+     *
+     * @return the emitter to return from the request handler
+     * @throws IllegalStateException if the subscriber limit is reached
+     */
+    public SseEmitter subscribe() {
+        // reserve a slot before registering, so concurrent connects cannot overshoot the limit
+        int count;
+        do {
+            count = subscriberCount.get();
+            if (count >= maxSubscribers) {
+                throw new IllegalStateException("Too many open photo streams");
+            }
+        } while (!subscriberCount.compareAndSet(count, count + 1));
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscribers.add(subscriber);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(ex -> subscriber.close());
+        subscriber.drainer = Thread.ofVirtual().name("photo-stream").start(subscriber::drain);
+        return emitter;
+    }
+
+    /**
+     * Broadcasts uploaded photos to all subscribers. Loading and mapping runs on the broadcast
+     * thread so the uploading request is not delayed.
+     *
+     * @param event the upload event
+     */
+    @EventListener
+    public void onPhotoUploaded(PhotoUploadedEvent event) {
+        if (subscribers.isEmpty() || event.photoIds().isEmpty()) {
+            return;
+        }
+        broadcaster.execute(() -> broadcast(event));
+    }
+
+    private void broadcast(PhotoUploadedEvent event) {
+        try {
+            // just inserted, possibly not yet on a read replica
+            List<PhotoResponse> photos = ReadRouting.onPrimary(() -> photoRepository.findAllById(event.photoIds())).stream()
+                    .sorted(Comparator.comparing(Photo::getCreatedAt))
+                    .map(photoMapper::toPhotoResponse)
+                    .toList();
+            for (Subscriber subscriber : subscribers) {
+                photos.forEach(subscriber::offer);
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to broadcast uploaded photos: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Returns the number of open streams.
+     *
+     * @return open stream count
+     */
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @PreDestroy
+    void stop() {
+        broadcaster.shutdownNow();
+    }
+
+    private final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<PhotoResponse> queue;
+        private volatile boolean overflowed;
+        private volatile boolean closed;
+        private volatile Thread drainer;
+
+        private Subscriber(SseEmitter emitter, BlockingQueue<PhotoResponse> queue) {
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        private void offer(PhotoResponse photo) {
+            if (!queue.offer(photo)) {
+                // too far behind: drop the backlog and let the client catch up from the feed
+                overflowed = true;
+                queue.clear();
+                queue.offer(photo);
+            }
+        }
+
+        private void drain() {
+            try {
+                while (!closed) {
+                    if (overflowed) {
+                        overflowed = false;
+                        emitter.send(SseEmitter.event().name("resync").data(""));
+                    }
+                    PhotoResponse photo = queue.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                    if (photo == null) {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    } else {
+                        emitter.send(SseEmitter.event().name("photo").data(photo, MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (IOException | IllegalStateException ex) {
+                // client went away; the emitter callbacks remove the subscriber
+                emitter.completeWithError(ex);
+            } finally {
+                close();
+            }
+        }
+
+        private void close() {
+            closed = true;
+            if (subscribers.remove(this)) {
+                subscriberCount.decrementAndGet();
+            }
+            if (drainer != null && drainer != Thread.currentThread()) {
+                drainer.interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.amalitech.pexelhub.service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Application event published once newly uploaded photos are committed.
+ *
+ * @param photoIds ids of the saved photos
+ * @param remote   {@code true} if the upload was committed by another instance and relayed here
+ */
+public record PhotoUploadedEvent(List<UUID> photoIds, boolean remote) {
+}
@@ -0,0 +1,319 @@
+package com.amalitech.pexelhub.service;
+
+import com.amalitech.pexelhub.datasource.ReadRouting;
+import com.amalitech.pexelhub.model.Photo;
+import com.amalitech.pexelhub.repository.PhotoRepository;
+import com.amalitech.pexelhub.storage.ObjectStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Post-upload stage that generates downscaled JPEG variants of each photo so clients can pick
+ * the smallest image that fits their viewport, plus a tiny inline placeholder shown while the
+ * image loads.
+ * <p>
+ * Variants are written next to the original object ({@code <key>.w<width>.jpg}) and their keys
+ * are recorded on the {@link Photo}. The placeholder is a {@value #PLACEHOLDER_WIDTH}px wide,
+ * heavily compressed JPEG stored on the photo as a {@code data:} URI, so the feed can paint it
+ * without another request. Both are rotated upright according to the EXIF orientation. Work
+ * runs on a small bounded pool; when it is saturated the photo is simply served without
+ * variants rather than queueing without bound. The original is decoded with source subsampling
+ * so very large uploads are never materialized at full resolution in the heap.
+ */
+@Component
+public class PhotoVariantPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoVariantPipeline.class);
+
+    /** Width of the inline placeholder in pixels. */
+    private static final int PLACEHOLDER_WIDTH = 16;
+
+    /** JPEG quality of the placeholder; it is blurred up by the browser anyway. */
+    private static final float PLACEHOLDER_QUALITY = 0.4f;
+
+    /** Longest placeholder stored; matches the {@code placeholder} column. */
+    private static final int PLACEHOLDER_MAX_LENGTH = 2048;
+
+    /** Suffix {@link #variantKey(String, int)} appends to the original key. */
+    private static final Pattern VARIANT_SUFFIX = Pattern.compile("\\.w\\d+\\.jpg$");
+
+    private final ObjectStore objectStore;
+    private final PhotoRepository photoRepository;
+    private final ThreadPoolTaskExecutor variantExecutor;
+    private final List<Integer> widths;
+    private final float jpegQuality;
+    private final PhotoMetrics metrics;
+
+    /**
+     * @param objectStore     object storage holding originals and variants
+     * @param photoRepository repository for Photo entities
+     * @param variantExecutor bounded pool the variants are generated on
+     * @param widths          target widths in pixels
+     * @param jpegQuality     JPEG compression quality between 0 and 1
+     * @param metrics         storage write meters
+     */
+    public PhotoVariantPipeline(
+            ObjectStore objectStore,
+            PhotoRepository photoRepository,
+            @Qualifier("variantExecutor") ThreadPoolTaskExecutor variantExecutor,
+            @Value("${pexelhub.variants.widths:320,800,1600}") List<Integer> widths,
+            @Value("${pexelhub.variants.jpeg-quality:0.82}") float jpegQuality,
+            PhotoMetrics metrics) {
+        this.objectStore = objectStore;
+        this.photoRepository = photoRepository;
+        this.variantExecutor = variantExecutor;
+        this.widths = widths.stream().sorted().toList();
+        this.jpegQuality = jpegQuality;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Builds the storage key of a variant stored next to the original object.
+     *
+     * @param s3Key original object key
+     * @param width variant width in pixels
+     * @return variant object key
+     */
+    public static String variantKey(String s3Key, int width) {
+        return s3Key + ".w" + width + ".jpg";
+    }
+
+    /**
+     * Derives the key of the original object a variant was generated from.
+     *
+     * @param key object key
+     * @return the original's key if the key has the form of a variant key, otherwise {@code null}
+     */
+    public static String originalKey(String key) {
+        String original = VARIANT_SUFFIX.matcher(key).replaceFirst("");
+        return original.equals(key) ? null : original;
+    }
+
+    /**
+     * Queues variant generation for a persisted photo. Photos that were already processed, such
+     * as duplicates sharing an earlier upload's object, are skipped.
+     *
+     * @param photo the saved photo
+     */
+    public void submit(Photo photo) {
+        if (photo.getVariants() != null) {
+            return;
+        }
+        UUID photoId = photo.getId();
+        String s3Key = photo.getS3Key();
+        try {
+            variantExecutor.execute(() -> generate(photoId, s3Key));
+        } catch (TaskRejectedException ex) {
+            logger.warn("Variant queue full; serving {} without resized variants", s3Key);
+        }
+    }
+
+    private void generate(UUID photoId, String s3Key) {
+        try {
+            Derivatives derivatives = createDerivatives(s3Key);
+            if (derivatives == null) {
+                return;
+            }
+            ReadRouting.onPrimary(() -> photoRepository.findById(photoId)).ifPresent(photo -> {
+                // an empty map still marks the photo as processed for later duplicates
+                photo.setVariants(derivatives.variants());
+                photo.setPlaceholder(derivatives.placeholder());
+                if (photo.getWidth() == null && derivatives.metadata() != null) {
+                    // uploaded directly to storage, so the header was never seen at upload time
+                    derivatives.metadata().applyTo(photo);
+                }
+                photoRepository.save(photo);
+            });
+        } catch (Exception ex) {
+            logger.warn("Failed to generate variants for {}: {}", s3Key, ex.getMessage(), ex);
+        }
+    }
+
+    private Derivatives createDerivatives(String s3Key) throws IOException {
+        BufferedImage source;
+        ImageMetadata metadata;
+        try (HeadCapturingInputStream content = new HeadCapturingInputStream(objectStore.get(s3Key), ImageMetadata.HEAD_SIZE)) {
+            source = decode(content, widths.get(widths.size() - 1));
+            metadata = ImageMetadata.read(content.head());
+        }
+        if (source == null) {
+            logger.debug("No image reader for {}; skipping variants", s3Key);
+            return null;
+        }
+        if (metadata != null) {
+            source = orient(source, metadata.orientation());
+        }
+        return new Derivatives(createVariants(s3Key, source), placeholder(source), metadata);
+    }
+
+    private Map<String, String> createVariants(String s3Key, BufferedImage source) throws IOException {
+        Map<String, String> variants = new LinkedHashMap<>();
+        for (int width : widths) {
+            if (width >= source.getWidth()) {
+                // never upscale; the original is already small enough for this width
+                break;
+            }
+            String key = variantKey(s3Key, width);
+            byte[] jpeg = encodeJpeg(scale(source, width), jpegQuality);
+            metrics.timeStoragePut(PhotoMetrics.KIND_VARIANT,
+                    () -> objectStore.put(key, "image/jpeg", new ByteArrayInputStream(jpeg)));
+            variants.put(String.valueOf(width), key);
+        }
+        return variants;
+    }
+
+    /**
+     * Encodes a tiny copy of the image as a {@code data:} URI.
+     *
+     * @return the URI, or {@code null} if it would not fit the column
+     */
+    private static String placeholder(BufferedImage source) throws IOException {
+        BufferedImage tiny = scale(source, Math.min(PLACEHOLDER_WIDTH, source.getWidth()));
+        String uri = "data:image/jpeg;base64,"
+                + Base64.getEncoder().encodeToString(encodeJpeg(tiny, PLACEHOLDER_QUALITY));
+        return uri.length() <= PLACEHOLDER_MAX_LENGTH ? uri : null;
+    }
+
+    /**
+     * Rotates and mirrors the decoded pixels so the image is upright, since JPEG variants are
+     * written without the EXIF block that told viewers how to display the original.
+     *
+     * @param orientation EXIF orientation (1-8)
+     */
+    private static BufferedImage orient(BufferedImage source, int orientation) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, width, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, width, height);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, height);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, height, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, height, width);
+            case 8 -> new AffineTransform(0, -1, 1, 0, 0, width);
+            default -> null;
+        };
+        if (transform == null) {
+            return source;
+        }
+        boolean swapped = orientation >= 5;
+        BufferedImage oriented = new BufferedImage(
+                swapped ? height : width, swapped ? width : height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = oriented.createGraphics();
+        try {
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, oriented.getWidth(), oriented.getHeight());
+            graphics.drawImage(source, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return oriented;
+    }
+
+    /**
+     * Decodes the image, subsampling at read time so the decoded width stays within twice the
+     * largest target width.
+     *
+     * @return decoded image, or {@code null} if no reader supports the format
+     */
+    private static BufferedImage decode(InputStream content, int maxWidth) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(content)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int subsampling = Math.max(1, reader.getWidth(0) / maxWidth);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * Scales the image to the target width, halving repeatedly first so large reductions
+     * do not alias.
+     */
+    private static BufferedImage scale(BufferedImage source, int targetWidth) {
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(1, (int) Math.round((double) source.getHeight() * width / source.getWidth()));
+
+            BufferedImage step = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                // JPEG has no alpha channel; flatten transparent sources onto white
+                graphics.drawImage(current, 0, 0, width, height, Color.WHITE, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (width > targetWidth);
+        return current;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image, float quality) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(bytes)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Everything derived from one decode of the original.
+     *
+     * @param variants    variant keys by width; empty if the original is smaller than every width
+     * @param placeholder inline placeholder URI, or {@code null}
+     * @param metadata    header of the original, or {@code null} if it could not be read
+     */
+    private record Derivatives(Map<String, String> variants, String placeholder, ImageMetadata metadata) {
+    }
+}
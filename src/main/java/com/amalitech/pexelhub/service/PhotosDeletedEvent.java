@@ -0,0 +1,17 @@
+package com.amalitech.pexelhub.service;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Application event published once deleted photos are committed and their unreferenced objects
+ * have been removed from storage.
+ *
+ * @param photoIds   ids of the deleted photos; empty when relayed from another instance
+ * @param objectKeys keys of the objects deleted from storage, including known variants; {@code null}
+ *                   when relayed from another instance and too many to relay, so any of them may be gone
+ * @param remote     {@code true} if the deletion was committed by another instance and relayed here
+ */
+public record PhotosDeletedEvent(List<UUID> photoIds, Set<String> objectKeys, boolean remote) {
+}
@@ -0,0 +1,227 @@
+package com.amalitech.pexelhub.service;
+
+import com.amalitech.pexelhub.datasource.ReadRouting;
+import com.amalitech.pexelhub.repository.PhotoBlobRepository;
+import com.amalitech.pexelhub.storage.ObjectStore;
+import com.amalitech.pexelhub.storage.ObjectSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Periodically deletes objects under {@code images/} that no photo references, such as objects
+ * left behind when saving a photo or deleting an object failed.
+ * <p>
+ * The bucket is listed page by page and checked against the database in batches with one
+ * set-based key lookup each, so neither the listing nor the table is ever loaded as a whole.
+ * An object is kept if its key, or for a resized variant its original's key, is registered in
+ * {@code image_blobs} or used by a photo. Objects younger than the grace period are skipped,
+ * because uploads write the object before its photo is saved and direct uploads are only
+ * recorded when the client completes them. One instance at a time runs a pass, guarded by a
+ * PostgreSQL advisory lock.
+ */
+@Component
+@ConditionalOnProperty(name = "pexelhub.storage.reconciliation.enabled", havingValue = "true")
+public class StorageReconciler {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageReconciler.class);
+
+    private static final String PREFIX = "images/";
+    private static final String LOCK_NAME = "pexelhub-storage-reconciliation";
+
+    private final ObjectStore objectStore;
+    private final PhotoBlobRepository blobRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration interval;
+    private final Duration gracePeriod;
+    private final int batchSize;
+    private final boolean dryRun;
+    private final Counter scanned;
+    private final Counter orphans;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("storage-reconciliation").daemon().factory());
+
+    /**
+     * @param objectStore    object storage that is listed and cleaned up
+     * @param blobRepository repository answering which keys are referenced
+     * @param jdbcTemplate   template holding the advisory lock
+     * @param interval       time between passes
+     * @param gracePeriod    minimum age of an object before it can be deleted; must exceed the
+     *                       time an upload may take to be recorded (e.g. the direct upload TTL)
+     * @param batchSize      keys checked per database lookup and deleted per storage request
+     * @param dryRun         whether orphans are only logged and counted, not deleted
+     * @param meterRegistry  registry the scanned and orphan counts are published to
+     */
+    public StorageReconciler(
+            ObjectStore objectStore,
+            PhotoBlobRepository blobRepository,
+            JdbcTemplate jdbcTemplate,
+            @Value("${pexelhub.storage.reconciliation.interval:6h}") Duration interval,
+            @Value("${pexelhub.storage.reconciliation.grace-period:24h}") Duration gracePeriod,
+            @Value("${pexelhub.storage.reconciliation.batch-size:1000}") int batchSize,
+            @Value("${pexelhub.storage.reconciliation.dry-run:false}") boolean dryRun,
+            MeterRegistry meterRegistry) {
+        if (batchSize < 1 || batchSize > 1000) {
+            throw new IllegalArgumentException("pexelhub.storage.reconciliation.batch-size must be between 1 and 1000");
+        }
+        this.objectStore = objectStore;
+        this.blobRepository = blobRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.interval = interval;
+        this.gracePeriod = gracePeriod;
+        this.batchSize = batchSize;
+        this.dryRun = dryRun;
+        this.scanned = Counter.builder("pexelhub.storage.reconciliation.scanned")
+                .description("Objects listed by storage reconciliation")
+                .register(meterRegistry);
+        this.orphans = Counter.builder("pexelhub.storage.reconciliation.orphans")
+                .description("Unreferenced objects found by storage reconciliation")
+                .tag("dry_run", String.valueOf(dryRun))
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts the periodic passes once the application is ready; the first runs one interval
+     * after startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::runExclusively, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void runExclusively() {
+        try {
+            // session-level lock, so it is held on this one connection for the whole pass
+            Boolean ran = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+                if (!advisoryLock(connection, "pg_try_advisory_lock")) {
+                    return false;
+                }
+                try {
+                    reconcile();
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                } finally {
+                    advisoryLock(connection, "pg_advisory_unlock");
+                }
+                return true;
+            });
+            if (!Boolean.TRUE.equals(ran)) {
+                logger.debug("Storage reconciliation is running on another instance");
+            }
+        } catch (Exception ex) {
+            logger.warn("Storage reconciliation failed: {}", ex.getMessage(), ex);
+        }
+    }
+
+    private static boolean advisoryLock(Connection connection, String function) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT " + function + "(hashtext(?))")) {
+            statement.setString(1, LOCK_NAME);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+
+    /**
+     * Runs one pass over the bucket.
+     *
+     * @throws IOException if listing or deleting objects fails
+     */
+    void reconcile() throws IOException {
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        long scannedCount = 0;
+        long orphanCount = 0;
+        try (Stream<ObjectSummary> objects = objectStore.list(PREFIX)) {
+            List<String> batch = new ArrayList<>(batchSize);
+            Iterator<ObjectSummary> iterator = objects.iterator();
+            while (iterator.hasNext()) {
+                ObjectSummary object = iterator.next();
+                scannedCount++;
+                if (object.lastModified().isBefore(cutoff)) {
+                    batch.add(object.key());
+                }
+                if (batch.size() == batchSize) {
+                    orphanCount += purge(batch);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                orphanCount += purge(batch);
+            }
+        } finally {
+            scanned.increment(scannedCount);
+        }
+        logger.info("Storage reconciliation scanned {} objects and {} {} orphans",
+                scannedCount, dryRun ? "found" : "deleted", orphanCount);
+    }
+
+    /**
+     * Deletes the keys of one batch that nothing references.
+     *
+     * @return number of orphans found
+     */
+    private int purge(List<String> keys) throws IOException {
+        Set<String> candidates = new HashSet<>(keys);
+        for (String key : keys) {
+            String original = PhotoVariantPipeline.originalKey(key);
+            if (original != null) {
+                candidates.add(original);
+            }
+        }
+        // a lagging replica could miss a photo saved moments ago
+        Set<String> referenced = new HashSet<>(
+                ReadRouting.onPrimary(() -> blobRepository.findReferencedKeys(candidates)));
+
+        List<String> unreferenced = keys.stream()
+                .filter(key -> !referenced.contains(key))
+                .filter(key -> {
+                    String original = PhotoVariantPipeline.originalKey(key);
+                    return original == null || !referenced.contains(original);
+                })
+                .toList();
+        if (unreferenced.isEmpty()) {
+            return 0;
+        }
+
+        orphans.increment(unreferenced.size());
+        if (dryRun) {
+            logger.info("Storage reconciliation dry run: {} unreferenced objects, e.g. {}",
+                    unreferenced.size(), unreferenced.get(0));
+        } else {
+            objectStore.deleteAll(unreferenced);
+        }
+        return unreferenced.size();
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+}
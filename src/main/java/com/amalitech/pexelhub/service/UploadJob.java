@@ -0,0 +1,91 @@
+package com.amalitech.pexelhub.service;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * State of an asynchronous upload, persisted next to its spooled body so it survives restarts.
+ *
+ * @param id          job id
+ * @param filename    original file name
+ * @param contentType MIME type of the image
+ * @param description optional description text
+ * @param status      processing state
+ * @param attempts    number of failed attempts so far
+ * @param error       reason for the last failure; {@code null} if none
+ * @param photoId     id of the saved photo once completed
+ * @param createdAt   time the upload was accepted
+ * @param updatedAt   time of the last state change
+ */
+public record UploadJob(
+        String id,
+        String filename,
+        String contentType,
+        String description,
+        Status status,
+        int attempts,
+        String error,
+        UUID photoId,
+        Instant createdAt,
+        Instant updatedAt) {
+
+    /**
+     * Processing state of a job.
+     */
+    public enum Status {
+        /** Spooled and waiting for a worker. */
+        QUEUED,
+        /** Being written to storage and the database. */
+        PROCESSING,
+        /** Failed and scheduled for another attempt. */
+        RETRYING,
+        /** Stored and persisted; {@code photoId} is set. */
+        COMPLETED,
+        /** Failed permanently, or gave up after the maximum number of attempts. */
+        FAILED;
+
+        /**
+         * @return {@code true} if the job will not change any more
+         */
+        public boolean isFinal() {
+            return this == COMPLETED || this == FAILED;
+        }
+    }
+
+    /**
+     * @param id          job id
+     * @param filename    original file name
+     * @param contentType MIME type of the image
+     * @param description optional description text
+     * @return a newly queued job
+     */
+    public static UploadJob queued(String id, String filename, String contentType, String description) {
+        Instant now = Instant.now();
+        return new UploadJob(id, filename, contentType, description, Status.QUEUED, 0, null, null, now, now);
+    }
+
+    /**
+     * @param status new state
+     * @return a copy in the given state
+     */
+    public UploadJob with(Status status) {
+        return new UploadJob(id, filename, contentType, description, status, attempts, error, photoId, createdAt, Instant.now());
+    }
+
+    /**
+     * @param status new state, {@link Status#RETRYING} or {@link Status#FAILED}
+     * @param error  reason for the failure
+     * @return a copy recording one more failed attempt
+     */
+    public UploadJob failedAttempt(Status status, String error) {
+        return new UploadJob(id, filename, contentType, description, status, attempts + 1, error, photoId, createdAt, Instant.now());
+    }
+
+    /**
+     * @param photoId id of the saved photo
+     * @return a completed copy
+     */
+    public UploadJob completed(UUID photoId) {
+        return new UploadJob(id, filename, contentType, description, Status.COMPLETED, attempts, null, photoId, createdAt, Instant.now());
+    }
+}
@@ -0,0 +1,321 @@
+package com.amalitech.pexelhub.service;
+
+import com.amalitech.pexelhub.exception.FileUploadException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Asynchronous upload ingestion.
+ * <p>
+ * An accepted upload is spooled to local disk ({@code <id>.bin} plus its {@link UploadJob} state
+ * in {@code <id>.json}) and acknowledged immediately; the multipart part is already on disk, so
+ * spooling is usually a rename. A bounded worker pool then writes the object to storage and
+ * persists the photo. Attempts that failed for a transient reason (I/O, an unavailable database
+ * or storage service) are retried with exponential backoff and jitter up to {@code max-attempts};
+ * any other failure, such as an upload that is not a readable image, fails the job at once.
+ * Jobs that were still pending when the application stopped are picked up again from the spool
+ * on startup, so processing is at-least-once: a crash between saving the photo and recording
+ * completion re-runs the job (storage is deduplicated by content hash). A state file that cannot
+ * be read is renamed to {@code <id>.json.corrupt} and left for inspection.
+ * <p>
+ * The spool and the job states are local to the instance that accepted the upload; behind a
+ * load balancer the status endpoint needs sticky routing or a shared spool volume.
+ */
+@Service
+public class UploadJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadJobService.class);
+
+    private final PhotoService photoService;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolTaskExecutor ingestExecutor;
+    private final ThreadPoolTaskScheduler ingestScheduler;
+    private final Path spoolDir;
+    private final int maxAttempts;
+    private final Duration initialBackoff;
+    private final Duration maxBackoff;
+    private final Duration retention;
+    private final Map<String, UploadJob> jobs = new ConcurrentHashMap<>();
+
+    /**
+     * @param photoService    service the spooled uploads are handed to
+     * @param objectMapper    mapper used to persist job states
+     * @param ingestExecutor  bounded worker pool processing jobs
+     * @param ingestScheduler scheduler for retries and purging finished jobs
+     * @param spoolDir        directory spooled uploads are kept in; created if missing
+     * @param maxAttempts     attempts before a job is marked failed
+     * @param initialBackoff  delay before the first retry; doubled on every further failure
+     * @param maxBackoff      upper bound on the retry delay
+     * @param retention       how long finished jobs stay queryable
+     * @throws IOException if the spool directory cannot be created
+     */
+    public UploadJobService(
+            PhotoService photoService,
+            ObjectMapper objectMapper,
+            @Qualifier("ingestExecutor") ThreadPoolTaskExecutor ingestExecutor,
+            @Qualifier("ingestScheduler") ThreadPoolTaskScheduler ingestScheduler,
+            @Value("${pexelhub.upload.async.spool-dir:./data/spool}") Path spoolDir,
+            @Value("${pexelhub.upload.async.max-attempts:5}") int maxAttempts,
+            @Value("${pexelhub.upload.async.initial-backoff:2s}") Duration initialBackoff,
+            @Value("${pexelhub.upload.async.max-backoff:5m}") Duration maxBackoff,
+            @Value("${pexelhub.upload.async.retention:1h}") Duration retention) throws IOException {
+        this.photoService = photoService;
+        this.objectMapper = objectMapper;
+        this.ingestExecutor = ingestExecutor;
+        this.ingestScheduler = ingestScheduler;
+        this.spoolDir = Files.createDirectories(spoolDir).toAbsolutePath().normalize();
+        this.maxAttempts = maxAttempts;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retention = retention;
+    }
+
+    /**
+     * Validates and spools an upload, then queues it for processing.
+     *
+     * @param file        the multipart image file
+     * @param description optional description text
+     * @return the queued job
+     * @throws FileUploadException   if the file is not a valid image upload
+     * @throws IllegalStateException if the ingestion queue is full
+     * @throws IOException           if the upload cannot be spooled
+     */
+    public UploadJob accept(MultipartFile file, String description) throws IOException {
+        if (file.isEmpty()) {
+            throw new FileUploadException("File cannot be empty");
+        }
+        String contentType = file.getContentType();
+        if (contentType == null || !contentType.startsWith("image/")) {
+            throw new FileUploadException("Only image files are allowed");
+        }
+        String filename = file.getOriginalFilename();
+        if (filename == null || filename.contains("..")) {
+            throw new FileUploadException("Invalid file name");
+        }
+
+        String id = UUID.randomUUID().toString();
+        file.transferTo(bodyPath(id));
+        UploadJob job = save(UploadJob.queued(id, filename, contentType, description));
+        try {
+            ingestExecutor.execute(() -> process(id));
+        } catch (TaskRejectedException ex) {
+            discard(id);
+            throw new IllegalStateException("Upload queue is full", ex);
+        }
+        return job;
+    }
+
+    /**
+     * Looks up a job accepted by this instance.
+     *
+     * @param id job id
+     * @return the job, if known and not yet purged
+     */
+    public Optional<UploadJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /**
+     * Re-queues jobs left in the spool by a previous run and starts purging finished jobs.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverSpooledJobs() {
+        int recovered = 0;
+        try (DirectoryStream<Path> states = Files.newDirectoryStream(spoolDir, "*.json")) {
+            for (Path state : states) {
+                if (recover(state)) {
+                    recovered++;
+                }
+            }
+        } catch (IOException ex) {
+            logger.error("Failed to recover spooled uploads from {}: {}", spoolDir, ex.getMessage(), ex);
+        }
+        if (recovered > 0) {
+            logger.info("Recovered {} spooled uploads", recovered);
+        }
+        ingestScheduler.scheduleAtFixedRate(this::purgeFinishedJobs, Instant.now().plus(retention), retention);
+    }
+
+    /**
+     * Restores one spooled job; a failure affects only this job, not the rest of the spool.
+     *
+     * @return {@code true} if the job was queued again
+     */
+    private boolean recover(Path state) {
+        UploadJob job;
+        try {
+            job = objectMapper.readValue(state.toFile(), UploadJob.class);
+        } catch (IOException | RuntimeException ex) {
+            logger.error("Unreadable upload state {}, moving it aside: {}", state.getFileName(), ex.getMessage(), ex);
+            quarantine(state);
+            return false;
+        }
+        try {
+            jobs.put(job.id(), job);
+            if (job.status().isFinal()) {
+                return false;
+            }
+            if (Files.exists(bodyPath(job.id()))) {
+                save(job.with(UploadJob.Status.QUEUED));
+                submit(job.id());
+                return true;
+            }
+            save(job.failedAttempt(UploadJob.Status.FAILED, "Spooled upload was lost"));
+        } catch (IOException | RuntimeException ex) {
+            logger.error("Failed to recover spooled upload {}: {}", job.id(), ex.getMessage(), ex);
+        }
+        return false;
+    }
+
+    private void quarantine(Path state) {
+        try {
+            Files.move(state, state.resolveSibling(state.getFileName() + ".corrupt"),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException ex) {
+            logger.warn("Failed to move aside upload state {}: {}", state.getFileName(), ex.getMessage());
+        }
+    }
+
+    private void submit(String id) {
+        try {
+            ingestExecutor.execute(() -> process(id));
+        } catch (TaskRejectedException ex) {
+            // workers saturated; the job stays spooled and is offered again later
+            ingestScheduler.schedule(() -> submit(id), Instant.now().plus(initialBackoff));
+        }
+    }
+
+    private void process(String id) {
+        UploadJob job = jobs.get(id);
+        if (job == null || job.status().isFinal()) {
+            return;
+        }
+        try {
+            job = save(job.with(UploadJob.Status.PROCESSING));
+            UUID photoId;
+            try (InputStream content = Files.newInputStream(bodyPath(id))) {
+                photoId = photoService.uploadPhoto(content, job.filename(), job.contentType(), job.description());
+            }
+            save(job.completed(photoId));
+            Files.deleteIfExists(bodyPath(id));
+        } catch (Exception ex) {
+            fail(job, ex);
+        }
+    }
+
+    private void fail(UploadJob job, Exception cause) {
+        String error = cause.getMessage();
+        try {
+            boolean retryable = isRetryable(cause);
+            if (!retryable || job.attempts() + 1 >= maxAttempts) {
+                if (retryable) {
+                    logger.error("Upload {} failed after {} attempts: {}", job.id(), maxAttempts, error, cause);
+                } else {
+                    logger.warn("Upload {} failed permanently: {}", job.id(), error, cause);
+                }
+                save(job.failedAttempt(UploadJob.Status.FAILED, error));
+                Files.deleteIfExists(bodyPath(job.id()));
+                return;
+            }
+            UploadJob retrying = save(job.failedAttempt(UploadJob.Status.RETRYING, error));
+            Duration delay = backoff(retrying.attempts());
+            logger.warn("Upload {} failed (attempt {}), retrying in {}: {}", job.id(), retrying.attempts(), delay, error);
+            ingestScheduler.schedule(() -> submit(job.id()), Instant.now().plus(delay));
+        } catch (IOException ex) {
+            logger.error("Failed to record state of upload {}: {}", job.id(), ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Whether a failed attempt may succeed when repeated. The cause chain is searched because
+     * storage errors arrive wrapped in a {@link FileUploadException}; one without such a cause is
+     * a rejected upload, e.g. a file over the size limit.
+     */
+    static boolean isRetryable(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof IOException
+                    || cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof SdkClientException) {
+                return true;
+            }
+            if (cause instanceof SdkServiceException service) {
+                return service.isThrottlingException() || service.statusCode() >= 500;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Exponential backoff with jitter, so uploads failing together do not retry in lockstep.
+     */
+    private Duration backoff(int attempts) {
+        long exponential = initialBackoff.toMillis() << Math.min(attempts - 1, 20);
+        long capped = Math.min(exponential, maxBackoff.toMillis());
+        return Duration.ofMillis(capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1));
+    }
+
+    private void purgeFinishedJobs() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().stream()
+                .filter(job -> job.status().isFinal() && job.updatedAt().isBefore(cutoff))
+                .forEach(job -> discard(job.id()));
+    }
+
+    private UploadJob save(UploadJob job) throws IOException {
+        Path state = statePath(job.id());
+        Path temp = state.resolveSibling(job.id() + ".json.part");
+        objectMapper.writeValue(temp.toFile(), job);
+        Files.move(temp, state, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        jobs.put(job.id(), job);
+        return job;
+    }
+
+    private void discard(String id) {
+        jobs.remove(id);
+        try {
+            Files.deleteIfExists(bodyPath(id));
+            Files.deleteIfExists(statePath(id));
+        } catch (IOException ex) {
+            logger.warn("Failed to delete spooled upload {}: {}", id, ex.getMessage());
+        }
+    }
+
+    private Path bodyPath(String id) {
+        return spoolDir.resolve(id + ".bin");
+    }
+
+    private Path statePath(String id) {
+        return spoolDir.resolve(id + ".json");
+    }
+}
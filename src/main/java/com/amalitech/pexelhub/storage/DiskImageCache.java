@@ -0,0 +1,284 @@
+package com.amalitech.pexelhub.storage;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * Size-bounded, least-recently-used cache of stored objects on local disk, backing the image proxy.
+ * <p>
+ * A miss fetches the object from the {@link ObjectStore} once; concurrent misses for the same key
+ * wait for that one fetch instead of each issuing a GET. Objects are immutable, so a cached file
+ * never needs revalidating. When the cache grows past {@code max-size} the least recently served
+ * files are evicted. An evicted file is deleted only after a grace period: a path returned by
+ * {@link #get(String)} may be handed to the connector's sendfile, which opens it by name after
+ * the request handler has returned, and it must still exist then. Once opened, a file stays
+ * readable after it is deleted. Until the grace period ends, evicted files take up disk space
+ * beyond {@code max-size}. Files of objects deleted from storage are dropped at once through
+ * {@link #remove(Collection)}. The index is rebuilt from the directory on startup, oldest files
+ * first.
+ */
+@Component
+@ConditionalOnProperty(name = "pexelhub.image-proxy.enabled", havingValue = "true")
+public class DiskImageCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiskImageCache.class);
+
+    /** How long an evicted file outlives its entry; far longer than a send takes to open it. */
+    private static final long EVICTION_GRACE_NANOS = Duration.ofMinutes(1).toNanos();
+
+    private final ObjectStore objectStore;
+    private final Path root;
+    private final long maxBytes;
+    private final Counter hits;
+    private final Counter misses;
+
+    /** Cached file names by recency of use, least recent first; guarded by {@code this}. */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(1024, 0.75f, true);
+    private long totalBytes;
+    /** Evicted file names awaiting deletion, by deadline ({@link System#nanoTime()}); guarded by {@code this}. */
+    private final LinkedHashMap<String, Long> evicted = new LinkedHashMap<>();
+    private final Map<String, CompletableFuture<Path>> loading = new ConcurrentHashMap<>();
+
+    /**
+     * @param objectStore   store cache misses are fetched from
+     * @param root          directory the cached files are kept in; created if missing
+     * @param maxSize       upper bound on the total size of cached files
+     * @param meterRegistry registry the hit and miss counts are published to
+     * @throws IOException if the directory cannot be created or scanned
+     */
+    public DiskImageCache(
+            ObjectStore objectStore,
+            @Value("${pexelhub.image-proxy.cache-dir:./data/image-cache}") Path root,
+            @Value("${pexelhub.image-proxy.max-size:2GB}") DataSize maxSize,
+            MeterRegistry meterRegistry) throws IOException {
+        this.objectStore = objectStore;
+        this.root = Files.createDirectories(root).toAbsolutePath().normalize();
+        this.maxBytes = maxSize.toBytes();
+        this.hits = Counter.builder("pexelhub.image.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("pexelhub.image.cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("pexelhub.image.cache.size", this, DiskImageCache::size)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        loadIndex();
+    }
+
+    /**
+     * Returns the local file holding an object, fetching it from storage on a miss.
+     *
+     * @param key object key
+     * @return path of the cached file
+     * @throws java.io.FileNotFoundException if no object exists under the key
+     * @throws IOException                   if the object cannot be fetched or cached
+     */
+    public Path get(String key) throws IOException {
+        String name = cacheName(key);
+        synchronized (this) {
+            if (entries.get(name) != null) {
+                hits.increment();
+                return root.resolve(name);
+            }
+        }
+
+        CompletableFuture<Path> fetch = new CompletableFuture<>();
+        CompletableFuture<Path> inProgress = loading.putIfAbsent(name, fetch);
+        if (inProgress != null) {
+            return await(inProgress);
+        }
+        misses.increment();
+        try {
+            Path file = fetch(key, name);
+            fetch.complete(file);
+            return file;
+        } catch (IOException | RuntimeException ex) {
+            fetch.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            loading.remove(name, fetch);
+        }
+    }
+
+    /**
+     * Derives the cache file name of a key; also usable as a stable validator for the object.
+     *
+     * @param key object key
+     * @return hex SHA-256 of the key
+     */
+    public static String cacheName(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    private Path fetch(String key, String name) throws IOException {
+        Path target = root.resolve(name);
+        Path temp = root.resolve("." + UUID.randomUUID() + ".part");
+        try {
+            try (InputStream content = objectStore.get(key)) {
+                Files.copy(content, temp);
+            }
+            install(temp, name);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        return target;
+    }
+
+    /**
+     * Moves a fetched file into place and indexes it, in one step so that a pending deletion of
+     * an earlier copy under the same name cannot remove it.
+     */
+    private synchronized void install(Path temp, String name) throws IOException {
+        Path target = root.resolve(name);
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        evicted.remove(name);
+        add(name, Files.size(target));
+    }
+
+    /**
+     * Drops the cached files of objects that were deleted from storage.
+     *
+     * @param keys object keys; keys that are not cached are ignored
+     */
+    public synchronized void remove(Collection<String> keys) {
+        for (String key : keys) {
+            String name = cacheName(key);
+            Long size = entries.remove(name);
+            if (size != null) {
+                totalBytes -= size;
+                deleteFile(name);
+            } else if (evicted.remove(name) != null) {
+                deleteFile(name);
+            }
+        }
+    }
+
+    /**
+     * Drops every cached file, for when it is unknown which objects were deleted.
+     */
+    public synchronized void clear() {
+        entries.keySet().forEach(this::deleteFile);
+        entries.clear();
+        evicted.keySet().forEach(this::deleteFile);
+        evicted.clear();
+        totalBytes = 0;
+    }
+
+    private synchronized void add(String name, long size) {
+        Long previous = entries.put(name, size);
+        totalBytes += size - (previous != null ? previous : 0);
+        evict();
+    }
+
+    /**
+     * Evicts least recently used entries until the cache fits, always keeping the newest entry,
+     * and deletes the files whose grace period has ended.
+     */
+    private synchronized void evict() {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && entries.size() > 1 && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            evicted.put(entry.getKey(), now + EVICTION_GRACE_NANOS);
+            totalBytes -= entry.getValue();
+            eldest.remove();
+        }
+
+        Iterator<Map.Entry<String, Long>> pending = evicted.entrySet().iterator();
+        while (pending.hasNext()) {
+            Map.Entry<String, Long> entry = pending.next();
+            if (entry.getValue() - now > 0) {
+                // deadlines grow in insertion order
+                break;
+            }
+            deleteFile(entry.getKey());
+            pending.remove();
+        }
+    }
+
+    private void deleteFile(String name) {
+        try {
+            Files.deleteIfExists(root.resolve(name));
+        } catch (IOException ex) {
+            logger.warn("Failed to evict cached image {}: {}", name, ex.getMessage());
+        }
+    }
+
+    private synchronized long size() {
+        return totalBytes;
+    }
+
+    private void loadIndex() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(root)) {
+            files = listing.filter(Files::isRegularFile).toList();
+        }
+        Map<Path, FileTime> modified = new HashMap<>();
+        for (Path file : files) {
+            if (file.getFileName().toString().startsWith(".")) {
+                // leftover of a fetch interrupted by a shutdown
+                Files.deleteIfExists(file);
+            } else {
+                modified.put(file, Files.getLastModifiedTime(file));
+            }
+        }
+        modified.keySet().stream()
+                .sorted(Comparator.comparing(modified::get))
+                .forEach(file -> {
+                    try {
+                        add(file.getFileName().toString(), Files.size(file));
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+    }
+
+    private static Path await(CompletableFuture<Path> fetch) throws IOException {
+        try {
+            return fetch.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for image fetch");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException io) {
+                throw io;
+            }
+            throw new IOException("Image fetch failed", ex.getCause());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.amalitech.pexelhub.storage;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes a local file (or a single byte range of it) to a servlet response.
+ * <p>
+ * On Tomcat with sendfile support the body is handed to the connector, which sends it straight
+ * from the page cache to the socket without copying it through the heap. The connector opens the
+ * file by name only after the request handler has returned, so the file must not be deleted
+ * before then (see {@link DiskImageCache}). Otherwise the file is copied to the response stream
+ * with {@link FileChannel#transferTo}, which goes through a buffer. A single {@code Range} is honoured with {@code 206 Partial Content}; multi-range requests get
+ * the full entity, which RFC 9110 permits.
+ */
+public final class FileRangeWriter {
+
+    private static final String NOSNIFF_HEADER = "X-Content-Type-Options";
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private FileRangeWriter() {
+    }
+
+    /**
+     * Writes a stored image like {@link #write}, with the type detected from its content by
+     * {@link ImageContentType}. Anything that is not an allowed raster image is sent as an
+     * {@code application/octet-stream} attachment, so a browser never renders it in the page's
+     * origin; {@code nosniff} stops it from guessing a type of its own.
+     *
+     * @param request  current request
+     * @param response response to write to
+     * @param file     image file to send
+     * @throws IOException if the file cannot be read or the client disconnects
+     */
+    public static void writeImage(HttpServletRequest request, HttpServletResponse response, Path file)
+            throws IOException {
+        MediaType contentType = ImageContentType.sniff(file);
+        response.setHeader(NOSNIFF_HEADER, "nosniff");
+        if (contentType == null) {
+            contentType = MediaType.APPLICATION_OCTET_STREAM;
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().build().toString());
+        }
+        write(request, response, file, contentType);
+    }
+
+    /**
+     * Writes the file honouring the request's {@code Range} header. Caching headers must be set
+     * on the response by the caller beforehand.
+     *
+     * @param request     current request
+     * @param response    response to write to
+     * @param file        file to send
+     * @param contentType MIME type of the file
+     * @throws IOException if the file cannot be read or the client disconnects
+     */
+    public static void write(HttpServletRequest request, HttpServletResponse response, Path file, MediaType contentType)
+            throws IOException {
+        long length = Files.size(file);
+        long start = 0;
+        long end = length - 1;
+
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader != null && length > 0) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(rangeHeader);
+            } catch (IllegalArgumentException ex) {
+                ranges = List.of();
+            }
+            if (ranges.size() == 1) {
+                HttpRange range = ranges.get(0);
+                try {
+                    start = range.getRangeStart(length);
+                    end = range.getRangeEnd(length);
+                } catch (IllegalArgumentException ex) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                if (start >= length) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                    response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                    return;
+                }
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType(contentType.toString());
+        response.setContentLengthLong(count);
+        if (HttpMethod.HEAD.matches(request.getMethod()) || count == 0) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long transferred = channel.transferTo(position, remaining, out);
+                if (transferred <= 0) {
+                    break;
+                }
+                position += transferred;
+                remaining -= transferred;
+            }
+        }
+    }
+}
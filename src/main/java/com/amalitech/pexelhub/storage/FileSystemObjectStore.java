@@ -0,0 +1,304 @@
+package com.amalitech.pexelhub.storage;
+
+import com.amalitech.pexelhub.exception.FileUploadException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * {@link ObjectStore} that keeps objects as files under a local root directory.
+ * <p>
+ * Intended for local performance testing, CI and on-prem deployments without S3. Writes stream
+ * through a {@link FileChannel} into a temporary file that is atomically moved into place, so
+ * readers never observe a partial object. Reads are served by {@code FileObjectController},
+ * which authenticates the HMAC-signed URLs produced by {@link #signedUrl(String, Duration)}.
+ * The same controller accepts direct uploads to URLs from
+ * {@link #presignPut(String, String, long, String, Duration)}.
+ */
+@Component
+@ConditionalOnProperty(name = "pexelhub.storage.type", havingValue = "filesystem")
+public class FileSystemObjectStore implements ObjectStore {
+
+    /** Path the signed URLs point at; served by {@code FileObjectController}. */
+    private static final String URL_PREFIX = "/api/v1/files/";
+
+    private static final long TRANSFER_CHUNK = DataSize.ofMegabytes(8).toBytes();
+
+    private final Path root;
+    private final UrlSigner urlSigner;
+    private final long maxObjectSize;
+
+    /**
+     * @param root          directory objects are stored under; created if missing
+     * @param urlSigner     signer for read URLs
+     * @param maxObjectSize largest object accepted
+     * @throws IOException if the root directory cannot be created
+     */
+    public FileSystemObjectStore(
+            @Value("${pexelhub.storage.filesystem.root:./data/objects}") Path root,
+            UrlSigner urlSigner,
+            @Value("${pexelhub.storage.max-object-size:50MB}") DataSize maxObjectSize) throws IOException {
+        this.root = Files.createDirectories(root).toAbsolutePath().normalize();
+        this.urlSigner = urlSigner;
+        this.maxObjectSize = maxObjectSize.toBytes();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long put(String key, String contentType, InputStream content) throws IOException {
+        Path target = resolve(key);
+        Path temp = tempFile(target);
+        try {
+            long written = writeTo(temp, content);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return written;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Stores a direct upload only if its content matches what the upload URL was signed for.
+     * Length and checksum are checked on the temporary file, so a mismatching body never
+     * replaces, or removes, an object already stored under the key.
+     *
+     * @param key            object key
+     * @param content        the uploaded bytes
+     * @param expectedLength declared length in bytes
+     * @param sha256         declared base64-encoded SHA-256
+     * @return whether the content matched and was stored
+     * @throws IOException if the object cannot be written
+     */
+    public boolean putVerified(String key, InputStream content, long expectedLength, String sha256) throws IOException {
+        Path target = resolve(key);
+        Path temp = tempFile(target);
+        try {
+            DigestInputStream digestContent = new DigestInputStream(content, newSha256());
+            long written = writeTo(temp, digestContent);
+            String actual = Base64.getEncoder().encodeToString(digestContent.getMessageDigest().digest());
+            if (written != expectedLength || !actual.equals(sha256)) {
+                return false;
+            }
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return true;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static Path tempFile(Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        return target.resolveSibling("." + UUID.randomUUID() + ".part");
+    }
+
+    /**
+     * Streams content into a new file, enforcing the object size limit.
+     *
+     * @return number of bytes written
+     */
+    private long writeTo(Path file, InputStream content) throws IOException {
+        long written = 0;
+        ReadableByteChannel source = Channels.newChannel(content);
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long transferred;
+            while ((transferred = out.transferFrom(source, written, TRANSFER_CHUNK)) > 0) {
+                written += transferred;
+                if (written > maxObjectSize) {
+                    throw new FileUploadException("File size exceeds the maximum allowed limit");
+                }
+            }
+        }
+        return written;
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public InputStream get(String key) throws IOException {
+        try {
+            return Files.newInputStream(resolve(key));
+        } catch (NoSuchFileException ex) {
+            throw new FileNotFoundException(key);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void deleteAll(Collection<String> keys) throws IOException {
+        List<String> failed = new ArrayList<>();
+        for (String key : keys) {
+            try {
+                delete(key);
+            } catch (IOException | IllegalArgumentException ex) {
+                failed.add(key);
+            }
+        }
+        if (!failed.isEmpty()) {
+            throw new IOException("Failed to delete " + failed.size() + " objects, e.g. " + failed.get(0));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Stream<ObjectSummary> list(String prefix) throws IOException {
+        // walk only the directory the prefix points into
+        int lastSlash = prefix.lastIndexOf('/');
+        Path directory = lastSlash < 0 ? root : resolve(prefix.substring(0, lastSlash));
+        if (!Files.isDirectory(directory)) {
+            return Stream.empty();
+        }
+        return Files.walk(directory)
+                // dot files are the temporary files of writes in progress
+                .filter(path -> !path.getFileName().toString().startsWith("."))
+                .map(this::summary)
+                .filter(Objects::nonNull)
+                .filter(summary -> summary.key().startsWith(prefix));
+    }
+
+    /**
+     * Describes a regular file as an object.
+     *
+     * @return the summary, or {@code null} for directories and files deleted meanwhile
+     */
+    private ObjectSummary summary(Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                return null;
+            }
+            String key = root.relativize(path).toString().replace(path.getFileSystem().getSeparator(), "/");
+            return new ObjectSummary(key, attributes.size(), attributes.lastModifiedTime().toInstant());
+        } catch (NoSuchFileException ex) {
+            return null;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String signedUrl(String key, Duration ttl) {
+        long expires = Instant.now().plus(ttl).getEpochSecond();
+        return URL_PREFIX + key + "?expires=" + expires + "&signature=" + urlSigner.sign(signaturePayload(key, expires));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public PresignedUpload presignPut(String key, String contentType, long contentLength, String sha256, Duration ttl) {
+        resolve(key);
+        long expires = Instant.now().plus(ttl).getEpochSecond();
+        String signature = urlSigner.sign(uploadSignaturePayload(key, expires, contentType, contentLength, sha256));
+        return new PresignedUpload(
+                URL_PREFIX + key + "?expires=" + expires + "&signature=" + signature,
+                Map.of("Content-Type", contentType, CHECKSUM_HEADER, sha256),
+                Instant.ofEpochSecond(expires));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Optional<ObjectInfo> stat(String key) throws IOException {
+        Path file = resolve(key);
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        // the upload endpoint checks the checksum, but nothing records it next to the file
+        return Optional.of(new ObjectInfo(Files.size(file), Files.probeContentType(file), null));
+    }
+
+    /**
+     * Checks a signed upload URL against the headers of the upload request.
+     *
+     * @param key           object key from the URL path
+     * @param expires       expiry from the URL, in epoch seconds
+     * @param signature     signature from the URL
+     * @param contentType   Content-Type of the upload request
+     * @param contentLength Content-Length of the upload request
+     * @param sha256        checksum header of the upload request
+     * @return whether the URL is unexpired and was issued for exactly this upload
+     * @throws IllegalArgumentException if the key escapes the storage root
+     */
+    public boolean verifyUpload(String key, long expires, String signature,
+                                String contentType, long contentLength, String sha256) {
+        resolve(key);
+        return Instant.now().getEpochSecond() <= expires
+                && urlSigner.verify(uploadSignaturePayload(key, expires, contentType, contentLength, sha256), signature);
+    }
+
+    /**
+     * Resolves the file of a signed read URL.
+     *
+     * @param key       object key from the URL path
+     * @param expires   expiry from the URL, in epoch seconds
+     * @param signature signature from the URL
+     * @return the object file, or {@code null} if the URL is expired or its signature is invalid
+     * @throws IllegalArgumentException if the key escapes the storage root
+     */
+    public Path resolveSigned(String key, long expires, String signature) {
+        if (Instant.now().getEpochSecond() > expires
+                || !urlSigner.verify(signaturePayload(key, expires), signature)) {
+            return null;
+        }
+        return resolve(key);
+    }
+
+    /**
+     * Maps a key to a path under the root, rejecting keys that would escape it.
+     */
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root) || path.equals(root)) {
+            throw new IllegalArgumentException("Invalid object key");
+        }
+        return path;
+    }
+
+    private static String signaturePayload(String key, long expires) {
+        return "GET\n" + key + "\n" + expires;
+    }
+
+    private static String uploadSignaturePayload(String key, long expires, String contentType, long contentLength, String sha256) {
+        return "PUT\n" + key + "\n" + expires + "\n" + contentType + "\n" + contentLength + "\n" + sha256;
+    }
+}
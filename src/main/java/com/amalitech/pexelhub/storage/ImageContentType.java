@@ -0,0 +1,91 @@
+package com.amalitech.pexelhub.storage;
+
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The raster image types served inline from this application's origin.
+ * <p>
+ * Object keys end in the uploader's file name, so neither the key's extension nor the declared
+ * upload type says what the bytes are; serving an uploaded HTML or SVG file under its own type
+ * would run it as part of the site. The type is therefore taken from the file's leading bytes and
+ * only JPEG, PNG, GIF and WebP are recognised.
+ */
+public final class ImageContentType {
+
+    /** WebP, for which {@link MediaType} has no constant. */
+    public static final MediaType IMAGE_WEBP = new MediaType("image", "webp");
+
+    /** File name extensions of the allowed types. */
+    private static final Set<String> EXTENSIONS = Set.of("jpg", "jpeg", "png", "gif", "webp");
+
+    /** Longest signature checked by {@link #sniff(byte[])}. */
+    private static final int SIGNATURE_LENGTH = 12;
+
+    private ImageContentType() {
+    }
+
+    /**
+     * Detects the type of an image from its leading bytes.
+     *
+     * @param head leading bytes of the file
+     * @return the raster type, or {@code null} if the bytes are not an allowed image type
+     */
+    public static MediaType sniff(byte[] head) {
+        if (startsWith(head, 0, 0xFF, 0xD8, 0xFF)) {
+            return MediaType.IMAGE_JPEG;
+        }
+        if (startsWith(head, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return MediaType.IMAGE_PNG;
+        }
+        if (startsWith(head, 0, 'G', 'I', 'F', '8', '7', 'a') || startsWith(head, 0, 'G', 'I', 'F', '8', '9', 'a')) {
+            return MediaType.IMAGE_GIF;
+        }
+        if (startsWith(head, 0, 'R', 'I', 'F', 'F') && startsWith(head, 8, 'W', 'E', 'B', 'P')) {
+            return IMAGE_WEBP;
+        }
+        return null;
+    }
+
+    /**
+     * Detects the type of an image file from its leading bytes.
+     *
+     * @param file the file to inspect
+     * @return the raster type, or {@code null} if the file is not an allowed image type
+     * @throws IOException if the file cannot be read
+     */
+    public static MediaType sniff(Path file) throws IOException {
+        try (InputStream content = Files.newInputStream(file)) {
+            return sniff(content.readNBytes(SIGNATURE_LENGTH));
+        }
+    }
+
+    /**
+     * Checks that a file name carries the extension of an allowed raster type.
+     *
+     * @param filename file name as given by the client
+     * @return {@code true} for {@code .jpg}, {@code .jpeg}, {@code .png}, {@code .gif} and {@code .webp}
+     */
+    public static boolean hasRasterExtension(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot >= 0 && EXTENSIONS.contains(filename.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private static boolean startsWith(byte[] data, int offset, int... signature) {
+        if (data.length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((data[offset + i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
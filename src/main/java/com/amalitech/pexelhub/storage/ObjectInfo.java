@@ -0,0 +1,12 @@
+package com.amalitech.pexelhub.storage;
+
+/**
+ * Metadata of a stored object, read without fetching its content.
+ *
+ * @param size        object size in bytes
+ * @param contentType MIME type recorded with the object; may be {@code null}
+ * @param sha256      hex-encoded SHA-256 verified by the store on write, or {@code null} if the
+ *                    store did not verify one
+ */
+public record ObjectInfo(long size, String contentType, String sha256) {
+}
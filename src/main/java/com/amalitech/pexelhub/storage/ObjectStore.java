@@ -0,0 +1,105 @@
+package com.amalitech.pexelhub.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Storage SPI for photo objects.
+ * <p>
+ * The active implementation is selected with {@code pexelhub.storage.type}: {@code s3}
+ * (default, {@link S3ObjectStore}) or {@code filesystem} ({@link FileSystemObjectStore}).
+ * Keys are slash-separated paths such as {@code images/<uuid>-name.jpg}.
+ */
+public interface ObjectStore {
+
+    /**
+     * Header carrying the base64-encoded SHA-256 of a direct upload, using the S3 name so
+     * clients upload to every store the same way.
+     */
+    String CHECKSUM_HEADER = "x-amz-checksum-sha256";
+
+    /**
+     * Streams content of unknown length to the given key, replacing any existing object.
+     *
+     * @param key         object key
+     * @param contentType MIME type of the content
+     * @param content     source stream; read to the end but not closed
+     * @return number of bytes stored
+     * @throws IOException if reading the source or writing the object fails
+     */
+    long put(String key, String contentType, InputStream content) throws IOException;
+
+    /**
+     * Opens an object for reading. The caller must close the returned stream.
+     *
+     * @param key object key
+     * @return the object content
+     * @throws java.io.FileNotFoundException if no object exists under the key
+     * @throws IOException                   if the object cannot be read
+     */
+    InputStream get(String key) throws IOException;
+
+    /**
+     * Deletes an object. Deleting a missing object is not an error.
+     *
+     * @param key object key
+     * @throws IOException if the object exists but cannot be deleted
+     */
+    void delete(String key) throws IOException;
+
+    /**
+     * Deletes several objects in as few requests as the store allows. Deleting a missing object
+     * is not an error; every key is attempted even if some fail.
+     *
+     * @param keys object keys
+     * @throws IOException if any existing object could not be deleted
+     */
+    void deleteAll(Collection<String> keys) throws IOException;
+
+    /**
+     * Lists the objects whose key starts with the given prefix. Entries are fetched lazily,
+     * a page at a time, so the listing is never held in memory as a whole; the caller must
+     * close the returned stream.
+     *
+     * @param prefix key prefix, e.g. {@code images/}
+     * @return the matching objects, in no particular order
+     * @throws IOException if the listing cannot be started
+     */
+    Stream<ObjectSummary> list(String prefix) throws IOException;
+
+    /**
+     * Creates a time-limited URL clients can read the object from without further authorization.
+     *
+     * @param key object key
+     * @param ttl how long the URL stays valid
+     * @return absolute or server-relative URL
+     */
+    String signedUrl(String key, Duration ttl);
+
+    /**
+     * Creates a time-limited URL a client can {@code PUT} one object to without passing the bytes
+     * through the application. The store rejects uploads whose content type, length or SHA-256
+     * differ from the ones given here.
+     *
+     * @param key           object key
+     * @param contentType   MIME type the upload must declare
+     * @param contentLength exact size of the upload in bytes
+     * @param sha256        base64-encoded SHA-256 of the content
+     * @param ttl           how long the URL stays valid
+     * @return the upload URL and the headers the upload must carry
+     */
+    PresignedUpload presignPut(String key, String contentType, long contentLength, String sha256, Duration ttl);
+
+    /**
+     * Reads an object's metadata without fetching its content.
+     *
+     * @param key object key
+     * @return the metadata, or empty if no object exists under the key
+     * @throws IOException if the metadata cannot be read
+     */
+    Optional<ObjectInfo> stat(String key) throws IOException;
+}
@@ -0,0 +1,13 @@
+package com.amalitech.pexelhub.storage;
+
+import java.time.Instant;
+
+/**
+ * One entry of an object listing.
+ *
+ * @param key          object key
+ * @param size         object size in bytes
+ * @param lastModified time the object was last written
+ */
+public record ObjectSummary(String key, long size, Instant lastModified) {
+}
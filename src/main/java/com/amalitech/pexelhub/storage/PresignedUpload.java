@@ -0,0 +1,14 @@
+package com.amalitech.pexelhub.storage;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * A time-limited URL a client can upload one object to directly.
+ *
+ * @param url       URL to send the {@code PUT} to
+ * @param headers   headers the upload must carry exactly as given; they are part of the signature
+ * @param expiresAt time after which the URL is rejected
+ */
+public record PresignedUpload(String url, Map<String, String> headers, Instant expiresAt) {
+}
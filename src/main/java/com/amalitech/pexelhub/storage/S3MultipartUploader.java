@@ -0,0 +1,203 @@
+package com.amalitech.pexelhub.storage;
+
+import com.amalitech.pexelhub.exception.FileUploadException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Streams an object of unknown length into S3 using parallel multipart part uploads.
+ * <p>
+ * The source is read one part at a time and each part is handed to the {@link S3AsyncClient}
+ * as soon as it is full, so reading the request body overlaps with uploading earlier parts.
+ * At most {@code max-concurrent-parts} parts are in flight at once, which bounds the memory
+ * held per upload to roughly {@code part-size * (max-concurrent-parts + 1)}. Objects smaller
+ * than one part are sent with a single PUT. On any failure the multipart upload is aborted so
+ * no orphaned parts are left billed in the bucket.
+ */
+@Component
+@ConditionalOnProperty(name = "pexelhub.storage.type", havingValue = "s3", matchIfMissing = true)
+public class S3MultipartUploader {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3MultipartUploader.class);
+
+    /** S3 rejects non-final parts smaller than 5 MiB. */
+    private static final long MIN_PART_SIZE = DataSize.ofMegabytes(5).toBytes();
+
+    private final S3AsyncClient s3AsyncClient;
+    private final int partSize;
+    private final int maxConcurrentParts;
+    private final long maxObjectSize;
+
+    /**
+     * @param s3AsyncClient      asynchronous S3 client
+     * @param partSize           size of each uploaded part (at least 5MB)
+     * @param maxConcurrentParts maximum number of parts uploaded in parallel per object
+     * @param maxObjectSize      largest object accepted; larger streams are aborted
+     */
+    public S3MultipartUploader(
+            @Lazy S3AsyncClient s3AsyncClient,
+            @Value("${aws.s3.upload.part-size:8MB}") DataSize partSize,
+            @Value("${aws.s3.upload.max-concurrent-parts:4}") int maxConcurrentParts,
+            @Value("${pexelhub.storage.max-object-size:50MB}") DataSize maxObjectSize) {
+        if (partSize.toBytes() < MIN_PART_SIZE || partSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("aws.s3.upload.part-size must be between 5MB and 2GB");
+        }
+        if (maxConcurrentParts < 1) {
+            throw new IllegalArgumentException("aws.s3.upload.max-concurrent-parts must be positive");
+        }
+        this.s3AsyncClient = s3AsyncClient;
+        this.partSize = (int) partSize.toBytes();
+        this.maxConcurrentParts = maxConcurrentParts;
+        this.maxObjectSize = maxObjectSize.toBytes();
+    }
+
+    /**
+     * Uploads the stream to the given key, blocking until the object is stored.
+     *
+     * @param bucket      target bucket
+     * @param key         target object key
+     * @param contentType MIME type recorded on the object
+     * @param content     source stream; read to the end but not closed
+     * @return number of bytes uploaded
+     * @throws IOException         if reading the source fails
+     * @throws FileUploadException if S3 rejects the upload or the object is too large
+     */
+    public long upload(String bucket, String key, String contentType, InputStream content) throws IOException {
+        byte[] firstPart = content.readNBytes(partSize);
+        if (firstPart.length < partSize) {
+            putObject(bucket, key, contentType, firstPart);
+            return firstPart.length;
+        }
+
+        String uploadId = join(s3AsyncClient.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .contentType(contentType)
+                .build())).uploadId();
+
+        Semaphore inFlight = new Semaphore(maxConcurrentParts);
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        try {
+            long uploaded = 0;
+            byte[] part = firstPart;
+            while (part.length > 0) {
+                uploaded += part.length;
+                if (uploaded > maxObjectSize) {
+                    throw new FileUploadException("File size exceeds the maximum allowed limit");
+                }
+
+                inFlight.acquire();
+                failFast(parts);
+                parts.add(uploadPart(bucket, key, uploadId, parts.size() + 1, part)
+                        .whenComplete((completed, ex) -> inFlight.release()));
+
+                part = content.readNBytes(partSize);
+            }
+
+            List<CompletedPart> completedParts = parts.stream().map(S3MultipartUploader::join).toList();
+            join(s3AsyncClient.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build()));
+            return uploaded;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            abort(bucket, key, uploadId, parts);
+            throw new FileUploadException("Upload interrupted", ex);
+        } catch (IOException | RuntimeException ex) {
+            abort(bucket, key, uploadId, parts);
+            throw ex;
+        }
+    }
+
+    private void putObject(String bucket, String key, String contentType, byte[] bytes) {
+        join(s3AsyncClient.putObject(PutObjectRequest.builder()
+                        .bucket(bucket)
+                        .key(key)
+                        .contentType(contentType)
+                        .contentLength((long) bytes.length)
+                        .build(),
+                AsyncRequestBody.fromBytesUnsafe(bytes)));
+    }
+
+    private CompletableFuture<CompletedPart> uploadPart(
+            String bucket, String key, String uploadId, int partNumber, byte[] bytes) {
+        UploadPartRequest request = UploadPartRequest.builder()
+                .bucket(bucket)
+                .key(key)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength((long) bytes.length)
+                .build();
+
+        return s3AsyncClient.uploadPart(request, AsyncRequestBody.fromBytesUnsafe(bytes))
+                .thenApply(response -> CompletedPart.builder()
+                        .partNumber(partNumber)
+                        .eTag(response.eTag())
+                        .build());
+    }
+
+    /**
+     * Surfaces the first failed part without waiting for the remaining ones.
+     */
+    private static void failFast(List<CompletableFuture<CompletedPart>> parts) {
+        for (CompletableFuture<CompletedPart> part : parts) {
+            if (part.isCompletedExceptionally()) {
+                join(part);
+            }
+        }
+    }
+
+    /**
+     * Cancels outstanding parts and aborts the multipart upload. Failures are logged rather than
+     * thrown so they never mask the error that caused the abort.
+     */
+    private void abort(String bucket, String key, String uploadId, List<CompletableFuture<CompletedPart>> parts) {
+        parts.forEach(part -> part.cancel(true));
+        try {
+            join(s3AsyncClient.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucket)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build()));
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to abort multipart upload {} for key {}: {}", uploadId, key, ex.getMessage());
+        }
+    }
+
+    /**
+     * Waits for an SDK future, translating its failure into a {@link FileUploadException}.
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause() != null ? ex.getCause() : ex;
+            throw new FileUploadException("Failed to upload file: " + cause.getMessage(), cause);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.amalitech.pexelhub.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.ChecksumMode;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * {@link ObjectStore} backed by an S3 bucket (or an S3-compatible endpoint).
+ * Writes go through the parallel {@link S3MultipartUploader}; signed URLs are SigV4 presigned GETs.
+ * Direct uploads are presigned PUTs whose content type, length and SHA-256 checksum are signed,
+ * so S3 itself rejects any other body. Bulk deletes use {@code DeleteObjects} with up to
+ * {@value #MAX_KEYS_PER_REQUEST} keys per request, and listings page through
+ * {@code ListObjectsV2}.
+ */
+@Component
+@ConditionalOnProperty(name = "pexelhub.storage.type", havingValue = "s3", matchIfMissing = true)
+public class S3ObjectStore implements ObjectStore {
+
+    /** Most keys S3 accepts in one {@code DeleteObjects} request or returns in one listing page. */
+    private static final int MAX_KEYS_PER_REQUEST = 1000;
+
+    private final S3Client s3Client;
+    private final S3Presigner s3Presigner;
+    private final S3MultipartUploader multipartUploader;
+    private final String bucketName;
+    private final String cacheControl;
+
+    /**
+     * @param s3Client          AWS S3 synchronous client
+     * @param s3Presigner       S3 presigner used to create presigned GET URLs
+     * @param multipartUploader streaming, parallel multipart uploader
+     * @param bucketName        name of the S3 bucket
+     * @param cacheControl      Cache-Control value S3 should return with objects read through signed URLs
+     */
+    public S3ObjectStore(
+            @Lazy S3Client s3Client,
+            @Lazy S3Presigner s3Presigner,
+            S3MultipartUploader multipartUploader,
+            @Value("${aws.s3.bucket.name}") String bucketName,
+            @Value("${aws.s3.presign.cache-control:}") String cacheControl) {
+        this.s3Client = s3Client;
+        this.s3Presigner = s3Presigner;
+        this.multipartUploader = multipartUploader;
+        this.bucketName = bucketName;
+        this.cacheControl = cacheControl;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public long put(String key, String contentType, InputStream content) throws IOException {
+        return multipartUploader.upload(bucketName, key, contentType, content);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public InputStream get(String key) throws IOException {
+        try {
+            return s3Client.getObject(GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build());
+        } catch (NoSuchKeyException ex) {
+            throw new FileNotFoundException(key);
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void delete(String key) {
+        s3Client.deleteObject(DeleteObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public void deleteAll(Collection<String> keys) throws IOException {
+        List<String> remaining = List.copyOf(keys);
+        List<String> failed = new ArrayList<>();
+        for (int from = 0; from < remaining.size(); from += MAX_KEYS_PER_REQUEST) {
+            List<ObjectIdentifier> batch = remaining.subList(from, Math.min(from + MAX_KEYS_PER_REQUEST, remaining.size()))
+                    .stream()
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .toList();
+            // quiet mode: the response lists only the keys that could not be deleted
+            DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                    .bucket(bucketName)
+                    .delete(Delete.builder().objects(batch).quiet(true).build())
+                    .build());
+            for (S3Error error : response.errors()) {
+                failed.add(error.key() + " (" + error.code() + ")");
+            }
+        }
+        if (!failed.isEmpty()) {
+            throw new IOException("Failed to delete " + failed.size() + " objects, e.g. " + failed.get(0));
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Stream<ObjectSummary> list(String prefix) {
+        return s3Client.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                        .bucket(bucketName)
+                        .prefix(prefix)
+                        .maxKeys(MAX_KEYS_PER_REQUEST)
+                        .build())
+                .contents()
+                .stream()
+                .map(object -> new ObjectSummary(object.key(), object.size(), object.lastModified()));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String signedUrl(String key, Duration ttl) {
+        GetObjectRequest.Builder getObjectRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key);
+        if (!cacheControl.isBlank()) {
+            getObjectRequest.responseCacheControl(cacheControl);
+        }
+
+        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .getObjectRequest(getObjectRequest.build())
+                .build();
+
+        return s3Presigner.presignGetObject(presignRequest).url().toString();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public PresignedUpload presignPut(String key, String contentType, long contentLength, String sha256, Duration ttl) {
+        PutObjectPresignRequest presignRequest = PutObjectPresignRequest.builder()
+                .signatureDuration(ttl)
+                .putObjectRequest(PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(key)
+                        .contentType(contentType)
+                        .contentLength(contentLength)
+                        .checksumSHA256(sha256)
+                        .build())
+                .build();
+        PresignedPutObjectRequest presigned = s3Presigner.presignPutObject(presignRequest);
+
+        // browsers set Host and Content-Length themselves and refuse to let scripts send them
+        Map<String, String> headers = new LinkedHashMap<>();
+        presigned.signedHeaders().forEach((name, values) -> {
+            if (!name.equalsIgnoreCase("host") && !name.equalsIgnoreCase("content-length")) {
+                headers.put(name, String.join(",", values));
+            }
+        });
+        return new PresignedUpload(presigned.url().toString(), headers, presigned.expiration());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Optional<ObjectInfo> stat(String key) {
+        try {
+            HeadObjectResponse head = s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .checksumMode(ChecksumMode.ENABLED)
+                    .build());
+            return Optional.of(new ObjectInfo(head.contentLength(), head.contentType(), sha256Hex(head.checksumSHA256())));
+        } catch (NoSuchKeyException ex) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Converts S3's base64 checksum to hex. Multipart objects carry a checksum of the part
+     * checksums ({@code <base64>-<parts>}), which is not the content hash.
+     */
+    private static String sha256Hex(String checksum) {
+        if (checksum == null || checksum.contains("-")) {
+            return null;
+        }
+        return HexFormat.of().formatHex(Base64.getDecoder().decode(checksum));
+    }
+}
@@ -0,0 +1,89 @@
+package com.amalitech.pexelhub.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Signs and verifies URL payloads with HMAC-SHA256 so links handed to clients cannot be
+ * forged or extended.
+ * <p>
+ * All instances serving the same clients must share {@code pexelhub.storage.signing-secret}, and
+ * startup fails when it is not set. A single development node may instead opt into a random
+ * per-process secret with {@code pexelhub.storage.ephemeral-signing-secret}.
+ */
+@Component
+public class UrlSigner {
+
+    private static final Logger logger = LoggerFactory.getLogger(UrlSigner.class);
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final SecretKeySpec key;
+
+    /**
+     * @param secret    shared signing secret
+     * @param ephemeral whether a blank secret is replaced by a random per-process one instead of
+     *                  failing startup
+     * @throws IllegalStateException if the secret is blank and no ephemeral secret is allowed
+     */
+    public UrlSigner(
+            @Value("${pexelhub.storage.signing-secret:}") String secret,
+            @Value("${pexelhub.storage.ephemeral-signing-secret:false}") boolean ephemeral) {
+        byte[] keyBytes;
+        if (secret.isBlank()) {
+            if (!ephemeral) {
+                throw new IllegalStateException("pexelhub.storage.signing-secret (STORAGE_SIGNING_SECRET) must be set; "
+                        + "set pexelhub.storage.ephemeral-signing-secret=true to use a per-process secret on a single node");
+            }
+            logger.warn("pexelhub.storage.signing-secret is not set; signed URLs will not survive a restart "
+                    + "or validate on other instances");
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+    }
+
+    /**
+     * Computes the URL-safe signature of a payload.
+     *
+     * @param payload the text to sign
+     * @return base64url-encoded HMAC
+     */
+    public String sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            byte[] signature = mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HMAC-SHA256 unavailable", ex);
+        }
+    }
+
+    /**
+     * Checks a signature in constant time.
+     *
+     * @param payload   the signed text
+     * @param signature signature received from the client
+     * @return whether the signature matches
+     */
+    public boolean verify(String payload, String signature) {
+        if (signature == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                sign(payload).getBytes(StandardCharsets.US_ASCII),
+                signature.getBytes(StandardCharsets.US_ASCII));
+    }
+}
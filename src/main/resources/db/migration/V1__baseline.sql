@@ -0,0 +1,49 @@
+-- Baseline schema. Written to be idempotent so it also applies on databases previously managed
+-- by hibernate.ddl-auto=update (spring.flyway.baseline-on-migrate with baseline version 0).
+
+CREATE TABLE IF NOT EXISTS images (
+    id           uuid         NOT NULL PRIMARY KEY,
+    description  varchar(500),
+    s3_key       varchar(255) NOT NULL,
+    content_hash varchar(64),
+    variants     jsonb,
+    created_at   timestamp(6) NOT NULL,
+    updated_at   timestamp(6) NOT NULL
+);
+
+-- Columns added after the first release of the table
+ALTER TABLE images ADD COLUMN IF NOT EXISTS content_hash varchar(64);
+ALTER TABLE images ADD COLUMN IF NOT EXISTS variants jsonb;
+ALTER TABLE images ADD COLUMN IF NOT EXISTS updated_at timestamp(6);
+UPDATE images SET updated_at = created_at WHERE updated_at IS NULL;
+ALTER TABLE images ALTER COLUMN updated_at SET NOT NULL;
+
+-- Deduplicated photos share an object, so s3_key is no longer unique
+DO $$
+DECLARE
+    constraint_name text;
+BEGIN
+    FOR constraint_name IN
+        SELECT con.conname
+        FROM pg_constraint con
+        JOIN pg_attribute att ON att.attrelid = con.conrelid AND att.attnum = ANY (con.conkey)
+        WHERE con.conrelid = 'images'::regclass AND con.contype = 'u' AND att.attname = 's3_key'
+    LOOP
+        EXECUTE format('ALTER TABLE images DROP CONSTRAINT %I', constraint_name);
+    END LOOP;
+END $$;
+
+-- Feed order and keyset pagination: (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_images_created_at_id ON images (created_at DESC, id DESC);
+-- Duplicate uploads look up siblings by content
+CREATE INDEX IF NOT EXISTS idx_images_content_hash ON images (content_hash);
+-- max(updated_at) for the feed's Last-Modified validator
+CREATE INDEX IF NOT EXISTS idx_images_updated_at ON images (updated_at);
+
+CREATE TABLE IF NOT EXISTS image_blobs (
+    content_hash varchar(64)  NOT NULL PRIMARY KEY,
+    s3_key       varchar(255) NOT NULL UNIQUE,
+    ref_count    bigint       NOT NULL,
+    size_bytes   bigint       NOT NULL,
+    created_at   timestamp(6) NOT NULL
+);
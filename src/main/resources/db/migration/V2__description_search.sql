@@ -0,0 +1,11 @@
+-- Full-text search over photo descriptions
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- 'simple' configuration: no stemming, so prefix queries match what the user typed
+ALTER TABLE images ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', coalesce(description, ''))) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_images_search_vector ON images USING GIN (search_vector);
+
+-- Typo-tolerant matching via the word similarity operator (<%)
+CREATE INDEX IF NOT EXISTS idx_images_description_trgm ON images USING GIN (description gin_trgm_ops);
@@ -0,0 +1,6 @@
+-- Image metadata read at upload and the placeholder generated with the variants
+ALTER TABLE images ADD COLUMN IF NOT EXISTS width integer;
+ALTER TABLE images ADD COLUMN IF NOT EXISTS height integer;
+ALTER TABLE images ADD COLUMN IF NOT EXISTS format varchar(16);
+ALTER TABLE images ADD COLUMN IF NOT EXISTS orientation integer;
+ALTER TABLE images ADD COLUMN IF NOT EXISTS placeholder varchar(2048);
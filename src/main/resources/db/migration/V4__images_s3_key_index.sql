@@ -0,0 +1,3 @@
+-- Key lookups: completing a direct upload and the storage reconciliation's batched
+-- s3_key IN (...) checks
+CREATE INDEX IF NOT EXISTS idx_images_s3_key ON images (s3_key);
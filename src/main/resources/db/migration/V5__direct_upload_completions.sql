@@ -0,0 +1,7 @@
+-- Completed direct uploads by the key their token was issued for, so retried and concurrent
+-- completions return the photo of the first one. No foreign key: images may be partitioned
+CREATE TABLE IF NOT EXISTS direct_upload_completions (
+    s3_key       varchar(255) NOT NULL PRIMARY KEY,
+    photo_id     uuid         NOT NULL,
+    completed_at timestamp(6) NOT NULL
+);
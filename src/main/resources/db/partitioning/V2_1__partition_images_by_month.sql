@@ -0,0 +1,64 @@
+-- Optional: monthly range partitioning of images by created_at (the "partitioned" profile).
+--
+-- Feed and search queries order by created_at DESC and stop after one page, so with partitions
+-- they touch the newest partitions first and keyset cursors prune older ones outright. Old months
+-- can be archived with ALTER TABLE images DETACH PARTITION ... CONCURRENTLY and dropped without a
+-- bulk DELETE and the vacuum work it leaves behind.
+--
+-- The primary key of a partitioned table must contain the partition key, so it becomes
+-- (id, created_at); ids are time-ordered UUIDs and stay unique in practice.
+
+-- Creates the monthly partitions from from_month up to months_ahead months after the current
+-- one. Called here for existing data and by the application's partition maintenance afterwards.
+CREATE OR REPLACE FUNCTION create_images_partitions(from_month date, months_ahead integer)
+RETURNS void
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    month_start date := date_trunc('month', from_month)::date;
+    last_month  date := (date_trunc('month', now()) + make_interval(months => months_ahead))::date;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF images FOR VALUES FROM (%L) TO (%L)',
+            'images_' || to_char(month_start, 'YYYY_MM'),
+            month_start,
+            (month_start + interval '1 month')::date);
+        month_start := (month_start + interval '1 month')::date;
+    END LOOP;
+END $$;
+
+ALTER TABLE images RENAME TO images_unpartitioned;
+
+-- Copies the current column set, so the profile can also be enabled after later migrations
+-- (spring.flyway.out-of-order)
+CREATE TABLE images (LIKE images_unpartitioned INCLUDING DEFAULTS INCLUDING GENERATED)
+    PARTITION BY RANGE (created_at);
+ALTER TABLE images ADD PRIMARY KEY (id, created_at);
+
+-- Catches rows outside the maintained range (e.g. a skewed clock) instead of failing the insert
+CREATE TABLE images_default PARTITION OF images DEFAULT;
+
+SELECT create_images_partitions(
+    coalesce((SELECT min(created_at) FROM images_unpartitioned), now())::date, 3);
+
+DO $$
+DECLARE
+    column_list text;
+BEGIN
+    SELECT string_agg(quote_ident(column_name), ', ' ORDER BY ordinal_position)
+    INTO column_list
+    FROM information_schema.columns
+    WHERE table_schema = current_schema() AND table_name = 'images_unpartitioned' AND is_generated = 'NEVER';
+    EXECUTE format('INSERT INTO images (%s) SELECT %s FROM images_unpartitioned', column_list, column_list);
+END $$;
+
+-- Frees the index names for the partitioned indexes below
+DROP TABLE images_unpartitioned;
+
+CREATE INDEX idx_images_created_at_id ON images (created_at DESC, id DESC);
+CREATE INDEX idx_images_content_hash ON images (content_hash);
+CREATE INDEX idx_images_updated_at ON images (updated_at);
+CREATE INDEX idx_images_s3_key ON images (s3_key);
+CREATE INDEX idx_images_search_vector ON images USING GIN (search_vector);
+CREATE INDEX idx_images_description_trgm ON images USING GIN (description gin_trgm_ops);
@@ -1,6 +1,7 @@
 let selectedFiles = [];
-let currentOffset = 5;
-let hasMoreImages = true;
+// Opaque keyset cursor handed out by the server; null once the feed is exhausted
+let nextCursor = document.getElementById('seeMoreBtn').dataset.nextCursor || null;
+let hasMoreImages = nextCursor !== null;
 
 function openUploadModal() {
     document.getElementById('uploadModal').classList.add('show');
@@ -143,6 +144,10 @@ function formatFileSize(bytes) {
     return parseFloat((bytes / Math.pow(k, i)).toFixed(2)) + ' ' + sizes[i];
 }
 
+// Direct uploads need SubtleCrypto to hash files, which browsers only offer on secure origins
+const DIRECT_UPLOAD_SUPPORTED = window.crypto && window.crypto.subtle;
+const DIRECT_UPLOAD_CONCURRENCY = 3;
+
 function uploadFiles() {
     if (selectedFiles.length === 0) return;
 
@@ -150,26 +155,42 @@ function uploadFiles() {
     uploadButton.disabled = true;
     uploadButton.textContent = 'Uploading...';
 
+    if (DIRECT_UPLOAD_SUPPORTED) {
+        uploadFilesDirect();
+        return;
+    }
+
     const formData = new FormData();
     selectedFiles.forEach(file => {
-        formData.append('file', file);
+        formData.append('files', file);
     });
+    formData.append('description', document.getElementById('imageDescription').value);
 
-    fetch('/api/v1/upload', {
+    fetch('/api/v1/upload/batch', {
         method: 'POST',
         body: formData
     })
         .then(response => {
+            // 207 Multi-Status carries per-file results when only some files failed
             if (!response.ok) {
                 throw new Error('Upload failed');
             }
-            return response.text();
+            return response.json();
         })
-        .then(data => {
-            console.log('Upload successful:', data);
-            alert('Photo Uploaded to PexelHub!');
+        .then(results => {
+            const failed = results.filter(result => !result.uploaded);
+            if (failed.length > 0) {
+                console.warn('Some photos failed to upload:', failed);
+                alert(`${results.length - failed.length} of ${results.length} photos uploaded. Failed: `
+                    + failed.map(result => result.filename).join(', '));
+            } else {
+                alert('Photos Uploaded to PexelHub!');
+            }
             closeUploadModal();
-            window.location.reload();
+            // with a live stream the new photos arrive as events; otherwise reload to see them
+            if (!photoStream) {
+                window.location.reload();
+            }
         })
         .catch(error => {
             console.error('S3 Upload error:', error);
@@ -184,6 +205,101 @@ function uploadFiles() {
     });
 }
 
+// Uploads every selected file straight to storage: hash, request a presigned URL, PUT with real
+// progress reporting, then tell the server the upload is complete
+function uploadFilesDirect() {
+    const description = document.getElementById('imageDescription').value;
+    const files = selectedFiles.slice();
+    const failed = [];
+    let next = 0;
+
+    function worker() {
+        if (next >= files.length) {
+            return Promise.resolve();
+        }
+        const index = next++;
+        return uploadFileDirect(files[index], index, description)
+            .catch(error => {
+                console.error('Direct upload failed:', files[index].name, error);
+                failed.push(files[index].name);
+            })
+            .then(worker);
+    }
+
+    const workers = [];
+    for (let i = 0; i < Math.min(DIRECT_UPLOAD_CONCURRENCY, files.length); i++) {
+        workers.push(worker());
+    }
+
+    Promise.all(workers).then(() => {
+        if (failed.length > 0) {
+            alert(`${files.length - failed.length} of ${files.length} photos uploaded. Failed: ` + failed.join(', '));
+        } else {
+            alert('Photos Uploaded to PexelHub!');
+        }
+        closeUploadModal();
+        if (!photoStream) {
+            window.location.reload();
+        }
+    });
+}
+
+function uploadFileDirect(file, index, description) {
+    return sha256Hex(file)
+        .then(sha256 => postJson('/api/v1/upload/direct', {
+            filename: file.name,
+            contentType: file.type,
+            size: file.size,
+            sha256: sha256
+        }))
+        .then(upload => putWithProgress(upload, file, index).then(() => upload.token))
+        .then(token => postJson('/api/v1/upload/direct/complete', { token: token, description: description }));
+}
+
+function sha256Hex(file) {
+    return file.arrayBuffer()
+        .then(buffer => crypto.subtle.digest('SHA-256', buffer))
+        .then(digest => Array.from(new Uint8Array(digest), b => b.toString(16).padStart(2, '0')).join(''));
+}
+
+function postJson(url, body) {
+    return fetch(url, {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json' },
+        body: JSON.stringify(body)
+    }).then(response => {
+        if (!response.ok) {
+            throw new Error(`${url} failed with ${response.status}`);
+        }
+        return response.json();
+    });
+}
+
+function putWithProgress(upload, file, index) {
+    const progressFill = document.querySelectorAll('.progress-fill')[index];
+
+    return new Promise((resolve, reject) => {
+        const xhr = new XMLHttpRequest();
+        xhr.open(upload.method, upload.url);
+        Object.entries(upload.headers).forEach(([name, value]) => xhr.setRequestHeader(name, value));
+
+        xhr.upload.addEventListener('progress', event => {
+            if (event.lengthComputable && progressFill) {
+                progressFill.style.width = (event.loaded / event.total * 100) + '%';
+            }
+        });
+        xhr.addEventListener('load', () => {
+            if (xhr.status >= 200 && xhr.status < 300) {
+                resolve();
+            } else {
+                reject(new Error(`Storage rejected upload with ${xhr.status}`));
+            }
+        });
+        xhr.addEventListener('error', () => reject(new Error('Network error during upload')));
+        xhr.send(file);
+    });
+}
+
 
 function simulateUpload(index) {
     const progressFill = document.querySelectorAll('.progress-fill')[index];
@@ -225,7 +341,12 @@ function loadMoreImages() {
     seeMoreBtn.textContent = 'Loading...';
     seeMoreBtn.disabled = true;
 
-    fetch(`/api/v1/photos/more?offset=${currentOffset}&limit=5`)
+    const params = new URLSearchParams({ limit: 5 });
+    if (nextCursor) {
+        params.set('cursor', nextCursor);
+    }
+
+    fetch(`/api/v1/photos/more?${params}`)
         .then(response => {
             if (!response.ok) {
                 throw new Error('Failed to load more images from S3');
@@ -235,10 +356,10 @@ function loadMoreImages() {
         .then(data => {
             if (data.photos && data.photos.length > 0) {
                 data.photos.forEach(photo => {
-                    addPhotoToGrid(photo.s3Url, photo.description || 'Uploaded photo');
+                    addPhotoToGrid(photo);
                 });
-                currentOffset += data.photos.length;
-                hasMoreImages = data.hasMore;
+                nextCursor = data.nextCursor;
+                hasMoreImages = data.hasMore && nextCursor !== null;
             } else {
                 hasMoreImages = false;
             }
@@ -254,25 +375,92 @@ function loadMoreImages() {
         });
 }
 
-function addPhotoToGrid(imageSrc, altText) {
+function updateSeeMoreButton() {
+    const seeMoreBtn = document.getElementById('seeMoreBtn');
+
+    if (hasMoreImages) {
+        seeMoreBtn.textContent = 'See more';
+        seeMoreBtn.disabled = false;
+    } else {
+        seeMoreBtn.textContent = 'No more photos';
+        seeMoreBtn.disabled = true;
+    }
+}
+
+function addPhotoToGrid(photo, prepend = false) {
     const photoGrid = document.getElementById('photoGrid');
     const photoItem = document.createElement('div');
     photoItem.className = 'photo-item';
 
     const img = document.createElement('img');
-    img.src = imageSrc;
-    img.alt = altText;
+    // Let the browser pick the smallest resized variant that fits the layout
+    if (photo.srcset) {
+        img.srcset = photo.srcset;
+        img.sizes = '(max-width: 768px) 100vw, 50vw';
+    }
+    // Known dimensions reserve the box up front, so the grid does not shift as images arrive
+    if (photo.width && photo.height) {
+        img.width = photo.width;
+        img.height = photo.height;
+    }
+    // Paint the tiny preview until the image itself has loaded
+    if (photo.placeholder) {
+        img.style.backgroundImage = `url(${photo.placeholder})`;
+        img.addEventListener('load', () => img.style.backgroundImage = '', { once: true });
+    }
+    img.src = photo.s3Url;
+    img.alt = photo.description || 'Uploaded photo';
     img.loading = 'lazy';
+    img.decoding = 'async';
 
     photoItem.appendChild(img);
-    photoGrid.appendChild(photoItem);
+    if (prepend) {
+        photoGrid.prepend(photoItem);
+    } else {
+        photoGrid.appendChild(photoItem);
+    }
 
     photoItem.addEventListener('click', function() {
-        console.log('Photo clicked:', imageSrc);
+        console.log('Photo clicked:', photo.s3Url);
     });
 }
 
+// Live feed of new uploads; the browser reconnects automatically if the stream drops
+let photoStream = null;
+
+function openPhotoStream() {
+    if (!window.EventSource) {
+        return;
+    }
+    photoStream = new EventSource('/api/v1/photos/stream');
+
+    photoStream.addEventListener('photo', event => {
+        const photo = JSON.parse(event.data);
+        addPhotoToGrid(photo, true);
+    });
+
+    // Sent when this client fell too far behind and missed events
+    photoStream.addEventListener('resync', refreshLatestPhotos);
+}
+
+function refreshLatestPhotos() {
+    const shown = new Set(Array.from(document.querySelectorAll('#photoGrid img'), img => img.src));
+
+    fetch('/api/v1/photos/more?limit=50')
+        .then(response => response.ok ? response.json() : { photos: [] })
+        .then(data => {
+            (data.photos || [])
+                .filter(photo => !shown.has(photo.s3Url))
+                .reverse()
+                .forEach(photo => addPhotoToGrid(photo, true));
+        })
+        .catch(error => console.error('Error refreshing photos:', error));
+}
+
 document.addEventListener('DOMContentLoaded', function() {
+    updateSeeMoreButton();
+    openPhotoStream();
+
     document.querySelectorAll('.photo-item').forEach(item => {
         item.addEventListener('click', function() {
             console.log('Photo clicked');
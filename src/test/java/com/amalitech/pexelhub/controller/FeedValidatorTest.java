@@ -0,0 +1,106 @@
+package com.amalitech.pexelhub.controller;
+
+import com.amalitech.pexelhub.service.PhotoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FeedValidatorTest {
+
+    @Mock
+    private PhotoService photoService;
+
+    private FeedValidator validator;
+
+    @BeforeEach
+    void setUp() {
+        validator = new FeedValidator(photoService, Duration.ofMinutes(2));
+        when(photoService.getLastModified()).thenReturn(Optional.of(LocalDateTime.of(2024, 5, 17, 12, 0)));
+        when(photoService.getTotalPhotoCount()).thenReturn(42L);
+    }
+
+    private static MockHttpServletRequest feedRequest() {
+        return new MockHttpServletRequest("GET", "/api/v1/photos");
+    }
+
+    /** Runs the check for a request and returns the response it left behind. */
+    private MockHttpServletResponse check(MockHttpServletRequest request, boolean expectedNotModified, Object... parameters) {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertThat(validator.checkNotModified(new ServletWebRequest(request, response), parameters))
+                .isEqualTo(expectedNotModified);
+        return response;
+    }
+
+    private String currentEtag(Object... parameters) {
+        return check(feedRequest(), false, parameters).getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void unconditionalRequestGetsEtagOnly() {
+        MockHttpServletResponse response = check(feedRequest(), false, "cursor", 20);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotBlank();
+        assertThat(response.getHeader(HttpHeaders.LAST_MODIFIED)).isNull();
+    }
+
+    @Test
+    void ifModifiedSinceAloneNeverAnswersNotModified() {
+        // a deletion does not raise the feed's last-modified time, so a date cannot validate it
+        MockHttpServletRequest request = feedRequest();
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, System.currentTimeMillis() + 60_000);
+
+        assertThat(check(request, false, "cursor", 20).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void matchingEtagIsNotModified() {
+        MockHttpServletRequest request = feedRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, currentEtag("cursor", 20));
+
+        assertThat(check(request, true, "cursor", 20).getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void etagDependsOnPagingParameters() {
+        MockHttpServletRequest request = feedRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, currentEtag("cursor", 20));
+
+        assertThat(check(request, false, "cursor", 50).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void etagChangesWhenPhotoIsDeleted() {
+        String etag = currentEtag("cursor", 20);
+        when(photoService.getTotalPhotoCount()).thenReturn(41L);
+        MockHttpServletRequest request = feedRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, System.currentTimeMillis() + 60_000);
+
+        assertThat(check(request, false, "cursor", 20).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void etagChangesWithLastModified() {
+        String etag = currentEtag("cursor", 20);
+        when(photoService.getLastModified()).thenReturn(Optional.of(LocalDateTime.of(2024, 5, 17, 12, 1)));
+        MockHttpServletRequest request = feedRequest();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+
+        assertThat(check(request, false, "cursor", 20).getStatus()).isEqualTo(200);
+    }
+}
@@ -0,0 +1,168 @@
+package com.amalitech.pexelhub.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UploadAdmissionFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final CountDownLatch finishRunning = new CountDownLatch(1);
+
+    @AfterEach
+    void tearDown() {
+        finishRunning.countDown();
+        executor.shutdownNow();
+    }
+
+    private UploadAdmissionFilter filter(int maxQueued, Duration queueTimeout) {
+        return new UploadAdmissionFilter(1, DataSize.ofKilobytes(64), maxQueued, queueTimeout,
+                Duration.ofSeconds(5), DataSize.ofKilobytes(32), meterRegistry);
+    }
+
+    private static MockHttpServletRequest upload(int contentLength) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/v1/upload");
+        request.setContent(new byte[contentLength]);
+        return request;
+    }
+
+    private static MockHttpServletResponse run(UploadAdmissionFilter filter, MockHttpServletRequest request,
+                                               FilterChain chain) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    /** Starts an upload that holds its admission until the test ends. */
+    private void startRunningUpload(UploadAdmissionFilter filter) throws Exception {
+        CountDownLatch admitted = new CountDownLatch(1);
+        executor.submit(() -> run(filter, upload(1024), (request, response) -> {
+            admitted.countDown();
+            try {
+                finishRunning.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(admitted.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private CompletableFuture<MockHttpServletResponse> startQueuedUpload(UploadAdmissionFilter filter, MockFilterChain chain)
+            throws InterruptedException {
+        CompletableFuture<MockHttpServletResponse> result = CompletableFuture.supplyAsync(() -> {
+            try {
+                return run(filter, upload(1024), chain);
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        }, executor);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (gauge("pexelhub.upload.admission.queue") < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(gauge("pexelhub.upload.admission.queue")).isEqualTo(1);
+        return result;
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).gauge().value();
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("pexelhub.upload.admission.rejected").tag("reason", reason).counter().count();
+    }
+
+    @Test
+    void admitsUploadWithinLimitsAndReleasesItAfterwards() throws Exception {
+        UploadAdmissionFilter filter = filter(1, Duration.ofSeconds(1));
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = run(filter, upload(1024), chain);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(chain.getRequest()).isNotNull();
+        assertThat(gauge("pexelhub.upload.admission.in.flight")).isZero();
+        assertThat(gauge("pexelhub.upload.admission.bytes")).isZero();
+    }
+
+    @Test
+    void rejectsUploadLargerThanTheBudget() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = run(filter(1, Duration.ofSeconds(1)), upload(65 * 1024), chain);
+
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(chain.getRequest()).isNull();
+        assertThat(rejected("too_large")).isEqualTo(1);
+    }
+
+    @Test
+    void queuedUploadIsAdmittedWhenRunningOneFinishes() throws Exception {
+        UploadAdmissionFilter filter = filter(1, Duration.ofSeconds(10));
+        startRunningUpload(filter);
+        MockFilterChain chain = new MockFilterChain();
+        CompletableFuture<MockHttpServletResponse> queued = startQueuedUpload(filter, chain);
+
+        finishRunning.countDown();
+
+        assertThat(queued.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(200);
+        assertThat(chain.getRequest()).isNotNull();
+    }
+
+    @Test
+    void rejectsUploadWhenQueueIsFull() throws Exception {
+        UploadAdmissionFilter filter = filter(1, Duration.ofSeconds(10));
+        startRunningUpload(filter);
+        startQueuedUpload(filter, new MockFilterChain());
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = run(filter, upload(1024), chain);
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("5");
+        assertThat(chain.getRequest()).isNull();
+        assertThat(rejected("queue_full")).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsUploadThatWaitsLongerThanTheQueueTimeout() throws Exception {
+        UploadAdmissionFilter filter = filter(1, Duration.ofMillis(50));
+        startRunningUpload(filter);
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = run(filter, upload(1024), chain);
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("5");
+        assertThat(chain.getRequest()).isNull();
+        assertThat(rejected("timeout")).isEqualTo(1);
+    }
+
+    @Test
+    void directUploadRequestsBypassAdmission() throws Exception {
+        UploadAdmissionFilter filter = filter(0, Duration.ofMillis(50));
+        startRunningUpload(filter);
+        MockFilterChain chain = new MockFilterChain();
+
+        MockHttpServletResponse response = run(filter, new MockHttpServletRequest("POST", "/api/v1/upload/direct"), chain);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(chain.getRequest()).isNotNull();
+    }
+}
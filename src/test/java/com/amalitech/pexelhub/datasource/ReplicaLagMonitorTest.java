@@ -0,0 +1,32 @@
+package com.amalitech.pexelhub.datasource;
+
+import com.amalitech.pexelhub.datasource.ReplicaLagMonitor.LagSample;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaLagMonitorTest {
+
+    @Test
+    void caughtUpStreamingReplicaHasNoLag() {
+        // an idle primary sends nothing, so the last replayed transaction may be old
+        assertThat(new LagSample(true, true, true, 3600.0).lagSeconds()).isZero();
+    }
+
+    @Test
+    void replayingReplicaLagsByTheAgeOfItsLastReplayedTransaction() {
+        assertThat(new LagSample(true, true, false, 1.5).lagSeconds()).isEqualTo(1.5);
+    }
+
+    @Test
+    void disconnectedReplicaIsNeverCurrent() {
+        // replayed everything it received before the WAL receiver dropped
+        assertThat(new LagSample(true, false, true, 0.2).lagSeconds()).isNaN();
+        assertThat(new LagSample(true, false, false, null).lagSeconds()).isNaN();
+    }
+
+    @Test
+    void promotedServerHasNoLag() {
+        assertThat(new LagSample(false, false, true, null).lagSeconds()).isZero();
+    }
+}
@@ -0,0 +1,69 @@
+package com.amalitech.pexelhub.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+class UuidV7Test {
+
+  @Test
+  void hasVersion7AndRfcVariant() {
+    UUID id = UuidV7.generate();
+
+    assertThat(id.version()).isEqualTo(7);
+    assertThat(id.variant()).isEqualTo(2);
+  }
+
+  @Test
+  void embedsTheCurrentUnixTime() {
+    long before = System.currentTimeMillis();
+    UUID id = UuidV7.generate();
+    long after = System.currentTimeMillis();
+
+    // a burst may have borrowed a few milliseconds ahead
+    assertThat(id.getMostSignificantBits() >>> 16).isBetween(before, after + 1_000);
+  }
+
+  @Test
+  void consecutiveIdsStrictlyIncreaseInByteOrder() {
+    // the string form compares like PostgreSQL's uuid type, byte by byte and unsigned
+    String previous = UuidV7.generate().toString();
+    for (int i = 0; i < 100_000; i++) {
+      String next = UuidV7.generate().toString();
+      assertThat(next).isGreaterThan(previous);
+      previous = next;
+    }
+  }
+
+  @Test
+  void concurrentGenerationNeverRepeatsAnId() throws Exception {
+    Set<UUID> ids = ConcurrentHashMap.newKeySet();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> tasks = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        tasks.add(executor.submit(() -> {
+          for (int i = 0; i < 10_000; i++) {
+            ids.add(UuidV7.generate());
+          }
+        }));
+      }
+      for (Future<?> task : tasks) {
+        task.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(ids).hasSize(80_000);
+  }
+}
@@ -0,0 +1,101 @@
+package com.amalitech.pexelhub.service;
+
+import com.amalitech.pexelhub.repository.PhotoBlobRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BlobRegistryTest {
+
+    @Mock
+    private PhotoBlobRepository blobRepository;
+
+    @Test
+    void acquireExistingTakesAReferenceToStoredContent() {
+        when(blobRepository.incrementRefCount("aa")).thenReturn(1);
+        when(blobRepository.findS3KeyByContentHash("aa")).thenReturn(Optional.of("images/a.jpg"));
+
+        assertThat(new BlobRegistry(blobRepository).acquireExisting("aa")).contains("images/a.jpg");
+    }
+
+    @Test
+    void acquireExistingOfUnknownContentAsksForAnUpload() {
+        when(blobRepository.incrementRefCount("aa")).thenReturn(0);
+
+        assertThat(new BlobRegistry(blobRepository).acquireExisting("aa")).isEmpty();
+        verify(blobRepository, never()).findS3KeyByContentHash(anyString());
+    }
+
+    @Test
+    void registerReturnsTheCallersKeyWhenItsCopyWasFirst() {
+        when(blobRepository.findS3KeyByContentHash("aa")).thenReturn(Optional.of("images/mine.jpg"));
+
+        assertThat(new BlobRegistry(blobRepository).register("aa", "images/mine.jpg", 10)).isEqualTo("images/mine.jpg");
+        verify(blobRepository).upsert("aa", "images/mine.jpg", 10);
+    }
+
+    @Test
+    void registerReturnsTheWinnersKeyWhenAConcurrentUploadWasFirst() {
+        when(blobRepository.findS3KeyByContentHash("aa")).thenReturn(Optional.of("images/theirs.jpg"));
+
+        assertThat(new BlobRegistry(blobRepository).register("aa", "images/mine.jpg", 10)).isEqualTo("images/theirs.jpg");
+    }
+
+    @Test
+    void releaseReportsWhetherTheLastReferenceIsGone() {
+        when(blobRepository.deleteIfUnreferenced("aa")).thenReturn(1);
+        when(blobRepository.deleteIfUnreferenced("bb")).thenReturn(0);
+        BlobRegistry registry = new BlobRegistry(blobRepository);
+
+        assertThat(registry.release("aa")).isTrue();
+        assertThat(registry.release("bb")).isFalse();
+
+        InOrder order = inOrder(blobRepository);
+        order.verify(blobRepository).decrementRefCount("aa", 1);
+        order.verify(blobRepository).deleteIfUnreferenced("aa");
+        order.verify(blobRepository).decrementRefCount("bb", 1);
+        order.verify(blobRepository).deleteIfUnreferenced("bb");
+    }
+
+    @Test
+    void releaseAllDropsOneReferencePerOccurrenceInHashOrder() {
+        when(blobRepository.deleteIfUnreferenced("aa")).thenReturn(1);
+        when(blobRepository.deleteIfUnreferenced("bb")).thenReturn(0);
+        when(blobRepository.deleteIfUnreferenced("cc")).thenReturn(1);
+
+        BlobRegistry registry = new BlobRegistry(blobRepository);
+        assertThat(registry.releaseAll(List.of("cc", "aa", "bb", "cc", "aa", "cc")))
+                .containsExactly("aa", "cc");
+
+        InOrder order = inOrder(blobRepository);
+        order.verify(blobRepository).decrementRefCount("aa", 2);
+        order.verify(blobRepository).deleteIfUnreferenced("aa");
+        order.verify(blobRepository).decrementRefCount("bb", 1);
+        order.verify(blobRepository).deleteIfUnreferenced("bb");
+        order.verify(blobRepository).decrementRefCount("cc", 3);
+        order.verify(blobRepository).deleteIfUnreferenced("cc");
+        order.verifyNoMoreInteractions();
+    }
+
+    @Test
+    void releaseAllOfNothingTouchesNoRows() {
+        BlobRegistry registry = new BlobRegistry(blobRepository);
+
+        assertThat(registry.releaseAll(List.of())).isEmpty();
+        verify(blobRepository, never()).decrementRefCount(anyString(), anyLong());
+    }
+}
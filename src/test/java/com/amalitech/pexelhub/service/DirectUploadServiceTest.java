@@ -0,0 +1,74 @@
+package com.amalitech.pexelhub.service;
+
+import com.amalitech.pexelhub.exception.FileUploadException;
+import com.amalitech.pexelhub.storage.ObjectStore;
+import com.amalitech.pexelhub.storage.PresignedUpload;
+import com.amalitech.pexelhub.storage.UrlSigner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DirectUploadServiceTest {
+
+    @Mock
+    private ObjectStore objectStore;
+
+    @Mock
+    private PhotoService photoService;
+
+    private DirectUploadService service() {
+        return new DirectUploadService(objectStore, photoService,
+                new UrlSigner("test-secret", false), Duration.ofMinutes(15), DataSize.ofMegabytes(50));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"evil.html", "evil.svg", "evil.png.htm", "noextension"})
+    void rejectsFileNamesOfNonRasterTypes(String filename) {
+        DirectUploadService service = service();
+
+        assertThatThrownBy(() -> service.createUpload(filename, "image/png", 100, "ab".repeat(32)))
+                .isInstanceOf(FileUploadException.class);
+        verifyNoInteractions(objectStore);
+    }
+
+    @Test
+    void retriedCompletionReturnsThePhotoWithoutTheObject() throws Exception {
+        DirectUploadService service = service();
+        ArgumentCaptor<String> key = ArgumentCaptor.forClass(String.class);
+        when(objectStore.presignPut(key.capture(), anyString(), anyLong(), anyString(), any()))
+                .thenReturn(new PresignedUpload("https://storage/upload", Map.of(), Instant.now()));
+        String token = service.createUpload("cat.jpg", "image/jpeg", 100, "ab".repeat(32)).token();
+
+        UUID photoId = UUID.randomUUID();
+        when(photoService.findCompletedUpload(key.getValue())).thenReturn(Optional.of(photoId));
+
+        assertThat(service.completeUpload(token, "")).isEqualTo(photoId);
+
+        verify(objectStore, never()).stat(anyString());
+        verify(photoService).findCompletedUpload(key.getValue());
+        verifyNoMoreInteractions(photoService);
+    }
+}
@@ -0,0 +1,110 @@
+package com.amalitech.pexelhub.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FeedChangeNotifierTest {
+
+    private static final UUID PHOTO_ID = UUID.randomUUID();
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PGConnection pgConnection;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private FeedChangeNotifier notifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(connection.createStatement()).thenReturn(mock(Statement.class));
+        notifier = new FeedChangeNotifier(dataSource, mock(JdbcTemplate.class), eventPublisher,
+                new FeedCache(Duration.ofMinutes(1)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        notifier.stop();
+    }
+
+    private static PGNotification notification(String payload) {
+        PGNotification notification = mock(PGNotification.class);
+        when(notification.getParameter()).thenReturn(payload);
+        return notification;
+    }
+
+    private static PGNotification[] idle() throws InterruptedException {
+        Thread.sleep(10);
+        return null;
+    }
+
+    @Test
+    void failingListenerDoesNotStopLaterNotifications() throws Exception {
+        PGNotification[] batch = {notification("other:deleted"), notification("other:" + PHOTO_ID)};
+        when(pgConnection.getNotifications(anyInt())).thenReturn(batch).thenAnswer(invocation -> idle());
+        doThrow(new IllegalStateException("listener failed"))
+                .when(eventPublisher).publishEvent(any(PhotosDeletedEvent.class));
+
+        notifier.start();
+
+        verify(eventPublisher, timeout(5_000)).publishEvent(new PhotoUploadedEvent(List.of(PHOTO_ID), true));
+    }
+
+    @Test
+    void unexpectedErrorRestartsTheListener() throws Exception {
+        PGNotification[] batch = {notification("other:" + PHOTO_ID)};
+        when(pgConnection.getNotifications(anyInt()))
+                .thenThrow(new IllegalStateException("driver bug"))
+                .thenReturn(batch)
+                .thenAnswer(invocation -> idle());
+
+        notifier.start();
+
+        verify(eventPublisher, timeout(5_000)).publishEvent(new PhotoUploadedEvent(List.of(PHOTO_ID), true));
+        verify(connection, timeout(5_000).times(2)).createStatement();
+    }
+
+    @Test
+    void relaysDeletedKeysSharedByTwoPhotos() throws Exception {
+        PGNotification[] batch = {notification("other:deleted:images/a.jpg\nimages/a.jpg\nimages/b.jpg")};
+        when(pgConnection.getNotifications(anyInt())).thenReturn(batch).thenAnswer(invocation -> idle());
+
+        notifier.start();
+
+        verify(eventPublisher, timeout(5_000)).publishEvent(
+                new PhotosDeletedEvent(List.of(), Set.of("images/a.jpg", "images/b.jpg"), true));
+    }
+}
@@ -0,0 +1,131 @@
+package com.amalitech.pexelhub.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageMetadataTest {
+
+    private static final byte[] SOI = {(byte) 0xFF, (byte) 0xD8};
+    private static final byte[] SOS = {(byte) 0xFF, (byte) 0xDA, 0, 2};
+
+    /** Builds a JPEG segment; the length field counts itself but not the marker. */
+    private static byte[] segment(int marker, byte[] payload) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(0xFF);
+        out.write(marker);
+        out.write((payload.length + 2) >> 8);
+        out.write(payload.length + 2);
+        out.writeBytes(payload);
+        return out.toByteArray();
+    }
+
+    private static void write16(ByteArrayOutputStream out, int value, boolean littleEndian) {
+        if (littleEndian) {
+            out.write(value);
+            out.write(value >> 8);
+        } else {
+            out.write(value >> 8);
+            out.write(value);
+        }
+    }
+
+    private static void write32(ByteArrayOutputStream out, long value, boolean littleEndian) {
+        if (littleEndian) {
+            write16(out, (int) value, true);
+            write16(out, (int) (value >> 16), true);
+        } else {
+            write16(out, (int) (value >> 16), false);
+            write16(out, (int) value, false);
+        }
+    }
+
+    /** An APP1 payload holding a TIFF header whose first IFD is at {@code ifdOffset}. */
+    private static byte[] exif(boolean littleEndian, long ifdOffset, int tag, int value) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{'E', 'x', 'i', 'f', 0, 0});
+        out.writeBytes(littleEndian ? new byte[]{'I', 'I'} : new byte[]{'M', 'M'});
+        write16(out, 42, littleEndian);
+        write32(out, ifdOffset, littleEndian);
+        write16(out, 1, littleEndian);
+        write16(out, tag, littleEndian);
+        write16(out, 3, littleEndian);
+        write32(out, 1, littleEndian);
+        write16(out, value, littleEndian);
+        write16(out, 0, littleEndian);
+        write32(out, 0, littleEndian);
+        return out.toByteArray();
+    }
+
+    private static byte[] jpeg(byte[]... segments) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(SOI);
+        for (byte[] segment : segments) {
+            out.writeBytes(segment);
+        }
+        out.writeBytes(SOS);
+        return out.toByteArray();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 6, 8})
+    void readsBigEndianOrientation(int orientation) {
+        assertThat(ImageMetadata.exifOrientation(jpeg(segment(0xE1, exif(false, 8, 0x0112, orientation)))))
+                .isEqualTo(orientation);
+    }
+
+    @Test
+    void readsLittleEndianOrientation() {
+        assertThat(ImageMetadata.exifOrientation(jpeg(segment(0xE1, exif(true, 8, 0x0112, 6))))).isEqualTo(6);
+    }
+
+    @Test
+    void skipsSegmentsBeforeExif() {
+        byte[] jfif = segment(0xE0, new byte[]{'J', 'F', 'I', 'F', 0, 1, 1, 0, 0, 1, 0, 1, 0, 0});
+
+        assertThat(ImageMetadata.exifOrientation(jpeg(jfif, segment(0xE1, exif(false, 8, 0x0112, 8))))).isEqualTo(8);
+    }
+
+    @Test
+    void defaultsWithoutExif() {
+        assertThat(ImageMetadata.exifOrientation(jpeg())).isEqualTo(1);
+    }
+
+    @Test
+    void defaultsWithoutOrientationTag() {
+        assertThat(ImageMetadata.exifOrientation(jpeg(segment(0xE1, exif(false, 8, 0x010F, 6))))).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresOutOfRangeOrientation() {
+        assertThat(ImageMetadata.exifOrientation(jpeg(segment(0xE1, exif(false, 8, 0x0112, 9))))).isEqualTo(1);
+    }
+
+    @Test
+    void defaultsWhenSegmentIsTruncated() {
+        byte[] jpeg = jpeg(segment(0xE1, exif(false, 8, 0x0112, 6)));
+
+        assertThat(ImageMetadata.exifOrientation(Arrays.copyOf(jpeg, 24))).isEqualTo(1);
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {0, 4, 64, 0x7FFF_FFFFL, 0x8000_0000L, 0xFFFF_FFF0L})
+    void defaultsWhenIfdOffsetPointsOutsideTheSegment(long ifdOffset) {
+        assertThat(ImageMetadata.exifOrientation(jpeg(segment(0xE1, exif(false, ifdOffset, 0x0112, 6))))).isEqualTo(1);
+    }
+
+    @Test
+    void ignoresExifAfterStartOfScan() {
+        byte[] jpeg = jpeg();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(jpeg);
+        out.writeBytes(segment(0xE1, exif(false, 8, 0x0112, 6)));
+
+        assertThat(ImageMetadata.exifOrientation(out.toByteArray())).isEqualTo(1);
+    }
+}
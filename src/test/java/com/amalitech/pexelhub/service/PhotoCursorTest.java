@@ -0,0 +1,66 @@
+package com.amalitech.pexelhub.service;
+
+import com.amalitech.pexelhub.model.Photo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class PhotoCursorTest {
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void roundTripsThroughItsEncodedForm() {
+        PhotoCursor cursor = new PhotoCursor(LocalDateTime.of(2024, 5, 17, 9, 30, 15, 123_456_000), UUID.randomUUID());
+
+        assertThat(PhotoCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void encodedFormIsUrlSafe() {
+        PhotoCursor cursor = new PhotoCursor(LocalDateTime.of(2024, 5, 17, 9, 30), UUID.randomUUID());
+
+        assertThat(cursor.encode()).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void pointsAfterTheGivenPhoto() {
+        Photo photo = new Photo();
+        photo.setId(UUID.randomUUID());
+        photo.setCreatedAt(LocalDateTime.of(2024, 5, 17, 9, 30));
+
+        assertThat(PhotoCursor.after(photo)).isEqualTo(new PhotoCursor(photo.getCreatedAt(), photo.getId()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"not base64!", ""})
+    void rejectsTokensThatAreNotCursors(String token) {
+        assertThatIllegalArgumentException().isThrownBy(() -> PhotoCursor.decode(token));
+    }
+
+    @Test
+    void rejectsTokensWithoutSeparator() {
+        assertThatIllegalArgumentException().isThrownBy(() -> PhotoCursor.decode(encode("2024-05-17T09:30")));
+    }
+
+    @Test
+    void rejectsMalformedTimestamps() {
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> PhotoCursor.decode(encode("yesterday|" + UUID.randomUUID())));
+    }
+
+    @Test
+    void rejectsMalformedIds() {
+        assertThatIllegalArgumentException().isThrownBy(() -> PhotoCursor.decode(encode("2024-05-17T09:30|42")));
+    }
+}
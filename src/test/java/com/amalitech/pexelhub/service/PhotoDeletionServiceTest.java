@@ -0,0 +1,110 @@
+package com.amalitech.pexelhub.service;
+
+import com.amalitech.pexelhub.model.Photo;
+import com.amalitech.pexelhub.repository.PhotoRepository;
+import com.amalitech.pexelhub.storage.ObjectStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.TransactionSystemException;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PhotoDeletionServiceTest {
+
+    @Mock
+    private PhotoRepository photoRepository;
+
+    @Mock
+    private BlobRegistry blobRegistry;
+
+    @Mock
+    private ObjectStore objectStore;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private final TransactionStatus status = new SimpleTransactionStatus();
+    private PhotoDeletionService service;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        service = new PhotoDeletionService(photoRepository, blobRegistry, objectStore,
+                new TransactionTemplate(transactionManager), eventPublisher);
+    }
+
+    private static Photo photo(String s3Key, String contentHash) {
+        Photo photo = new Photo();
+        photo.setId(UUID.randomUUID());
+        photo.setS3Key(s3Key);
+        photo.setContentHash(contentHash);
+        return photo;
+    }
+
+    @Test
+    void deletesObjectsOnlyAfterTheRowsAreCommitted() throws Exception {
+        Photo released = photo("images/a.jpg", "aa");
+        released.setVariants(Map.of("320", "images/a.jpg.w320.jpg"));
+        Photo shared = photo("images/b.jpg", "bb");
+        List<UUID> ids = List.of(released.getId(), shared.getId());
+        when(photoRepository.lockAllById(Set.copyOf(ids))).thenReturn(List.of(released, shared));
+        when(blobRegistry.releaseAll(List.of("aa", "bb"))).thenReturn(Set.of("aa"));
+
+        assertThat(service.delete(ids)).isEqualTo(2);
+
+        InOrder order = inOrder(photoRepository, blobRegistry, transactionManager, objectStore, eventPublisher);
+        order.verify(photoRepository).deleteAllByIdInBatch(ids);
+        order.verify(blobRegistry).releaseAll(List.of("aa", "bb"));
+        order.verify(transactionManager).commit(status);
+        order.verify(objectStore).deleteAll(Set.of("images/a.jpg", "images/a.jpg.w320.jpg"));
+        order.verify(eventPublisher).publishEvent(
+                new PhotosDeletedEvent(ids, Set.of("images/a.jpg", "images/a.jpg.w320.jpg"), false));
+    }
+
+    @Test
+    void keepsObjectsWhenTheCommitFails() {
+        Photo photo = photo("images/a.jpg", "aa");
+        List<UUID> ids = List.of(photo.getId());
+        when(photoRepository.lockAllById(Set.copyOf(ids))).thenReturn(List.of(photo));
+        when(blobRegistry.releaseAll(List.of("aa"))).thenReturn(Set.of("aa"));
+        doThrow(new TransactionSystemException("commit failed")).when(transactionManager).commit(status);
+
+        assertThatThrownBy(() -> service.delete(ids)).isInstanceOf(TransactionSystemException.class);
+
+        verifyNoInteractions(objectStore, eventPublisher);
+    }
+
+    @Test
+    void ignoresUnknownIds() {
+        List<UUID> ids = List.of(UUID.randomUUID());
+        when(photoRepository.lockAllById(Set.copyOf(ids))).thenReturn(List.of());
+
+        assertThat(service.delete(ids)).isZero();
+
+        verifyNoInteractions(objectStore, eventPublisher);
+    }
+}
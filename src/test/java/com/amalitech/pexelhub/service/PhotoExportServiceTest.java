@@ -0,0 +1,34 @@
+package com.amalitech.pexelhub.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PhotoExportServiceTest {
+
+    @Test
+    void writesMissingValueAsEmptyField() {
+        assertThat(PhotoExportService.csvField(null)).isEmpty();
+    }
+
+    @Test
+    void leavesPlainValueUnquoted() {
+        assertThat(PhotoExportService.csvField("Sunset over Accra")).isEqualTo("Sunset over Accra");
+    }
+
+    @Test
+    void quotesValueWithDelimiter() {
+        assertThat(PhotoExportService.csvField("a,b")).isEqualTo("\"a,b\"");
+    }
+
+    @Test
+    void doublesQuotesInsideQuotedValue() {
+        assertThat(PhotoExportService.csvField("say \"hi\"")).isEqualTo("\"say \"\"hi\"\"\"");
+    }
+
+    @Test
+    void quotesValueWithLineBreaks() {
+        assertThat(PhotoExportService.csvField("first\nsecond")).isEqualTo("\"first\nsecond\"");
+        assertThat(PhotoExportService.csvField("first\r\nsecond")).isEqualTo("\"first\r\nsecond\"");
+    }
+}
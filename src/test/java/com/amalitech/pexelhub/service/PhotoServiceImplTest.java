@@ -0,0 +1,251 @@
+package com.amalitech.pexelhub.service;
+
+import com.amalitech.pexelhub.dto.response.UploadResultResponse;
+import com.amalitech.pexelhub.mapper.PhotoMapper;
+import com.amalitech.pexelhub.model.Photo;
+import com.amalitech.pexelhub.repository.DirectUploadCompletionRepository;
+import com.amalitech.pexelhub.repository.PhotoRepository;
+import com.amalitech.pexelhub.storage.ObjectStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PhotoServiceImplTest {
+
+    private static final String KEY = "images/upload.jpg";
+    private static final String HASH = "ab".repeat(32);
+
+    @Mock
+    private PhotoRepository photoRepository;
+
+    @Mock
+    private ObjectStore objectStore;
+
+    @Mock
+    private PhotoVariantPipeline variantPipeline;
+
+    @Mock
+    private BlobRegistry blobRegistry;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DirectUploadCompletionRepository completionRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private PhotoMapper photoMapper;
+
+    private final TransactionStatus status = new SimpleTransactionStatus();
+    private PhotoServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(status);
+        service = new PhotoServiceImpl(photoRepository, objectStore, photoMapper, null, variantPipeline, blobRegistry,
+                new FeedCache(Duration.ofMinutes(1)), eventPublisher, new PhotoMetrics(new SimpleMeterRegistry()),
+                completionRepository, new TransactionTemplate(transactionManager));
+    }
+
+    private void saveAssignsId(UUID id) {
+        when(photoRepository.save(any())).thenAnswer(invocation -> {
+            Photo photo = invocation.getArgument(0);
+            photo.setId(id);
+            return photo;
+        });
+    }
+
+    private static List<Photo> photos(int count, LocalDateTime newest) {
+        List<Photo> photos = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Photo photo = new Photo();
+            photo.setId(UUID.randomUUID());
+            photo.setCreatedAt(newest.minusMinutes(i));
+            photos.add(photo);
+        }
+        return photos;
+    }
+
+    @Test
+    void firstFeedPageLinksToTheNextThroughACursorOnItsLastPhoto() {
+        List<Photo> page = photos(3, LocalDateTime.of(2024, 5, 17, 12, 0));
+        when(photoRepository.findLatestPhotos(PageRequest.of(0, 3)))
+                .thenReturn(new SliceImpl<>(page, PageRequest.of(0, 3), true));
+
+        Map<String, Object> response = service.getPhotosByCursor(null, 3);
+
+        assertThat(response).containsEntry("hasMore", true)
+                .containsEntry("nextCursor", PhotoCursor.after(page.get(2)).encode());
+        assertThat((List<?>) response.get("photos")).hasSize(3);
+    }
+
+    @Test
+    void nextFeedPageContinuesAfterTheCursorPosition() {
+        Photo last = photos(1, LocalDateTime.of(2024, 5, 17, 12, 0)).get(0);
+        List<Photo> page = photos(2, last.getCreatedAt().minusMinutes(1));
+        when(photoRepository.findPhotosBefore(last.getCreatedAt(), last.getId(), PageRequest.of(0, 3)))
+                .thenReturn(new SliceImpl<>(page, PageRequest.of(0, 3), false));
+
+        Map<String, Object> response = service.getPhotosByCursor(PhotoCursor.after(last).encode(), 3);
+
+        assertThat(response).containsEntry("hasMore", false).containsEntry("nextCursor", null);
+        assertThat((List<?>) response.get("photos")).hasSize(2);
+    }
+
+    @Test
+    void feedPageSizeIsCapped() {
+        when(photoRepository.findLatestPhotos(PageRequest.of(0, 50)))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 50), false));
+
+        assertThat(service.getPhotosByCursor(null, 500)).containsEntry("hasMore", false);
+    }
+
+    @Test
+    void completedUploadReturnsItsPhotoWithoutRegisteringAgain() {
+        UUID photoId = UUID.randomUUID();
+        when(completionRepository.findPhotoIdByS3Key(KEY)).thenReturn(Optional.of(photoId));
+
+        assertThat(service.registerStoredPhoto(KEY, HASH, 100, "")).isEqualTo(photoId);
+
+        verifyNoInteractions(blobRegistry, photoRepository, objectStore);
+    }
+
+    @Test
+    void recordsTheCompletionWithThePhoto() throws Exception {
+        UUID photoId = UUID.randomUUID();
+        when(completionRepository.findPhotoIdByS3Key(KEY)).thenReturn(Optional.empty());
+        when(blobRegistry.register(HASH, KEY, 100)).thenReturn(KEY);
+        saveAssignsId(photoId);
+        when(completionRepository.insertIfAbsent(KEY, photoId)).thenReturn(1);
+
+        assertThat(service.registerStoredPhoto(KEY, HASH, 100, "")).isEqualTo(photoId);
+
+        verify(transactionManager).commit(status);
+        verify(eventPublisher).publishEvent(new PhotoUploadedEvent(List.of(photoId), false));
+        verify(objectStore, never()).delete(anyString());
+    }
+
+    @Test
+    void losingConcurrentCompletionReturnsTheWinnersPhoto() throws Exception {
+        UUID winner = UUID.randomUUID();
+        when(completionRepository.findPhotoIdByS3Key(KEY))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(winner));
+        when(blobRegistry.register(HASH, KEY, 100)).thenReturn(KEY);
+        saveAssignsId(UUID.randomUUID());
+        when(completionRepository.insertIfAbsent(anyString(), any())).thenReturn(0);
+
+        assertThat(service.registerStoredPhoto(KEY, HASH, 100, "")).isEqualTo(winner);
+
+        assertThat(status.isRollbackOnly()).isTrue();
+        verify(blobRegistry).releaseAll(List.of(HASH));
+        verify(objectStore, never()).delete(anyString());
+        verifyNoInteractions(eventPublisher, variantPipeline);
+    }
+
+    @Test
+    void duplicateUploadIsDeletedOnlyAfterTheCompletionCommits() throws Exception {
+        UUID photoId = UUID.randomUUID();
+        when(completionRepository.findPhotoIdByS3Key(KEY)).thenReturn(Optional.empty());
+        when(blobRegistry.register(HASH, KEY, 100)).thenReturn("images/earlier.jpg");
+        saveAssignsId(photoId);
+        when(completionRepository.insertIfAbsent(KEY, photoId)).thenReturn(1);
+
+        assertThat(service.registerStoredPhoto(KEY, HASH, 100, "")).isEqualTo(photoId);
+
+        InOrder order = inOrder(transactionManager, objectStore);
+        order.verify(transactionManager).commit(status);
+        order.verify(objectStore).delete(KEY);
+    }
+
+    @Test
+    void failedSaveKeepsTheUploadSoTheClientCanRetry() throws Exception {
+        when(completionRepository.findPhotoIdByS3Key(KEY)).thenReturn(Optional.empty());
+        when(blobRegistry.register(HASH, KEY, 100)).thenReturn("images/earlier.jpg");
+        when(photoRepository.save(any())).thenThrow(new IllegalStateException("database down"));
+
+        assertThatThrownBy(() -> service.registerStoredPhoto(KEY, HASH, 100, ""))
+                .isInstanceOf(IllegalStateException.class);
+
+        verify(blobRegistry).releaseAll(List.of(HASH));
+        verify(objectStore, never()).delete(anyString());
+        verify(objectStore, never()).deleteAll(any());
+    }
+
+    /** Runs a batch upload of two files whose content is already stored. */
+    private List<UploadResultResponse> uploadStoredBatch() {
+        when(blobRegistry.acquireExisting(anyString())).thenReturn(Optional.of("images/earlier.jpg"));
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.initialize();
+        try {
+            PhotoServiceImpl batchService = new PhotoServiceImpl(photoRepository, objectStore, photoMapper, executor,
+                    variantPipeline, blobRegistry, new FeedCache(Duration.ofMinutes(1)), eventPublisher,
+                    new PhotoMetrics(new SimpleMeterRegistry()), completionRepository,
+                    new TransactionTemplate(transactionManager));
+            return batchService.uploadPhotos(List.of(
+                    new MockMultipartFile("files", "a.jpg", "image/jpeg", new byte[]{1, 2, 3}),
+                    new MockMultipartFile("files", "b.jpg", "image/jpeg", new byte[]{4, 5, 6})), "");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void failedBatchSaveReleasesItsReferences() {
+        when(photoRepository.saveAll(anyList())).thenThrow(new IllegalStateException("database down"));
+
+        assertThat(uploadStoredBatch()).extracting(UploadResultResponse::uploaded).containsExactly(false, false);
+
+        verify(blobRegistry).releaseAll(anyList());
+        verifyNoInteractions(eventPublisher, variantPipeline);
+    }
+
+    @Test
+    void failureAfterBatchSaveKeepsTheSavedPhotosReferences() {
+        when(photoRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        doThrow(new IllegalStateException("listener failed")).when(eventPublisher).publishEvent(any(Object.class));
+
+        assertThatThrownBy(this::uploadStoredBatch).isInstanceOf(IllegalStateException.class);
+
+        verify(blobRegistry, never()).releaseAll(any());
+        verifyNoInteractions(objectStore);
+    }
+}
@@ -0,0 +1,111 @@
+package com.amalitech.pexelhub.service;
+
+import com.amalitech.pexelhub.dto.response.PhotoResponse;
+import com.amalitech.pexelhub.mapper.PhotoMapper;
+import com.amalitech.pexelhub.model.Photo;
+import com.amalitech.pexelhub.repository.PhotoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PhotoStreamBroadcasterTest {
+
+    private static final int MAX_SUBSCRIBERS = 5;
+
+    @Mock
+    private PhotoRepository photoRepository;
+
+    @Mock
+    private PhotoMapper photoMapper;
+
+    private PhotoStreamBroadcaster broadcaster;
+
+    @BeforeEach
+    void setUp() {
+        broadcaster = new PhotoStreamBroadcaster(photoRepository, photoMapper, 32, MAX_SUBSCRIBERS,
+                Duration.ofMinutes(1), Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void tearDown() {
+        broadcaster.stop();
+    }
+
+    @Test
+    void concurrentConnectsDoNotExceedSubscriberLimit() throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger accepted = new AtomicInteger();
+        List<Thread> clients = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            clients.add(Thread.ofVirtual().start(() -> {
+                try {
+                    start.await();
+                    broadcaster.subscribe();
+                    accepted.incrementAndGet();
+                } catch (IllegalStateException | InterruptedException ex) {
+                    // limit reached
+                }
+            }));
+        }
+        start.countDown();
+        for (Thread client : clients) {
+            client.join();
+        }
+
+        assertThat(accepted).hasValue(MAX_SUBSCRIBERS);
+        assertThat(broadcaster.subscriberCount()).isEqualTo(MAX_SUBSCRIBERS);
+    }
+
+    @Test
+    void broadcastsEventsInCommitOrder() {
+        Photo first = photo();
+        Photo second = photo();
+        when(photoRepository.findAllById(List.of(first.getId()))).thenAnswer(invocation -> {
+            // a slow load must not let the next event overtake this one
+            Thread.sleep(200);
+            return List.of(first);
+        });
+        when(photoRepository.findAllById(List.of(second.getId()))).thenReturn(List.of(second));
+        when(photoMapper.toPhotoResponse(first)).thenReturn(response("first"));
+        when(photoMapper.toPhotoResponse(second)).thenReturn(response("second"));
+        broadcaster.subscribe();
+
+        broadcaster.onPhotoUploaded(new PhotoUploadedEvent(List.of(first.getId()), false));
+        broadcaster.onPhotoUploaded(new PhotoUploadedEvent(List.of(second.getId()), false));
+
+        verify(photoMapper, timeout(2000)).toPhotoResponse(second);
+        InOrder order = inOrder(photoMapper);
+        order.verify(photoMapper).toPhotoResponse(first);
+        order.verify(photoMapper).toPhotoResponse(second);
+    }
+
+    private static Photo photo() {
+        Photo photo = new Photo();
+        photo.setId(UUID.randomUUID());
+        photo.setCreatedAt(LocalDateTime.now());
+        return photo;
+    }
+
+    private static PhotoResponse response(String url) {
+        return new PhotoResponse(url, null, null, null, null, null);
+    }
+}
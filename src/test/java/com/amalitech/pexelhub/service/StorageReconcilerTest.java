@@ -0,0 +1,86 @@
+package com.amalitech.pexelhub.service;
+
+import com.amalitech.pexelhub.repository.PhotoBlobRepository;
+import com.amalitech.pexelhub.storage.ObjectStore;
+import com.amalitech.pexelhub.storage.ObjectSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StorageReconcilerTest {
+
+    private static final Instant OLD = Instant.now().minus(Duration.ofDays(2));
+
+    @Mock
+    private ObjectStore objectStore;
+
+    @Mock
+    private PhotoBlobRepository blobRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Captor
+    private ArgumentCaptor<Collection<String>> deleted;
+
+    private StorageReconciler reconciler(boolean dryRun) {
+        return new StorageReconciler(objectStore, blobRepository, jdbcTemplate,
+                Duration.ofHours(6), Duration.ofHours(24), 1000, dryRun, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void keepsVariantsOfReferencedOriginalsAndDeletesOrphans() throws Exception {
+        when(objectStore.list("images/")).thenReturn(Stream.of(
+                new ObjectSummary("images/a.jpg", 100, OLD),
+                new ObjectSummary("images/a.jpg.w320.jpg", 10, OLD),
+                new ObjectSummary("images/b.jpg", 100, OLD),
+                new ObjectSummary("images/b.jpg.w320.jpg", 10, OLD)));
+        when(blobRepository.findReferencedKeys(any())).thenReturn(List.of("images/a.jpg"));
+
+        reconciler(false).reconcile();
+
+        verify(objectStore).deleteAll(deleted.capture());
+        assertThat(deleted.getValue()).containsExactly("images/b.jpg", "images/b.jpg.w320.jpg");
+    }
+
+    @Test
+    void skipsObjectsYoungerThanTheGracePeriod() throws Exception {
+        when(objectStore.list("images/")).thenReturn(Stream.of(
+                new ObjectSummary("images/new.jpg", 100, Instant.now()),
+                new ObjectSummary("images/old.jpg", 100, OLD)));
+        when(blobRepository.findReferencedKeys(any())).thenReturn(List.of());
+
+        reconciler(false).reconcile();
+
+        verify(objectStore).deleteAll(deleted.capture());
+        assertThat(deleted.getValue()).containsExactly("images/old.jpg");
+    }
+
+    @Test
+    void dryRunDeletesNothing() throws Exception {
+        when(objectStore.list("images/")).thenReturn(Stream.of(new ObjectSummary("images/b.jpg", 100, OLD)));
+        when(blobRepository.findReferencedKeys(any())).thenReturn(List.of());
+
+        reconciler(true).reconcile();
+
+        verify(objectStore, never()).deleteAll(any());
+    }
+}
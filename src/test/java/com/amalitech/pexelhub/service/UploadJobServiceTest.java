@@ -0,0 +1,130 @@
+package com.amalitech.pexelhub.service;
+
+import com.amalitech.pexelhub.exception.FileUploadException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UploadJobServiceTest {
+
+    @Mock
+    private PhotoService photoService;
+
+    @Mock
+    private ThreadPoolTaskExecutor ingestExecutor;
+
+    @Mock
+    private ThreadPoolTaskScheduler ingestScheduler;
+
+    @TempDir
+    private Path spoolDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private UploadJobService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        service = new UploadJobService(photoService, objectMapper,
+                ingestExecutor, ingestScheduler, spoolDir, 5,
+                Duration.ofSeconds(2), Duration.ofMinutes(5), Duration.ofHours(1));
+    }
+
+    private UploadJob acceptAndProcess() throws IOException {
+        // run the job on the calling thread
+        doAnswer(invocation -> {
+            invocation.getArgument(0, Runnable.class).run();
+            return null;
+        }).when(ingestExecutor).execute(any(Runnable.class));
+        String id = service.accept(new MockMultipartFile("file", "a.jpg", "image/jpeg", new byte[]{1, 2, 3}), "").id();
+        return service.find(id).orElseThrow();
+    }
+
+    @Test
+    void rejectedUploadFailsWithoutRetrying() throws IOException {
+        when(photoService.uploadPhoto(any(), anyString(), anyString(), anyString()))
+                .thenThrow(new FileUploadException("File size exceeds the maximum allowed limit"));
+
+        UploadJob job = acceptAndProcess();
+
+        assertThat(job.status()).isEqualTo(UploadJob.Status.FAILED);
+        assertThat(job.attempts()).isEqualTo(1);
+        assertThat(job.error()).contains("maximum allowed");
+        assertThat(spoolDir.resolve(job.id() + ".bin")).doesNotExist();
+        verify(ingestScheduler, never()).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void transientFailureIsRetried() throws IOException {
+        when(photoService.uploadPhoto(any(), anyString(), anyString(), anyString()))
+                .thenThrow(new FileUploadException("Failed to upload file: timeout", new IOException("timeout")));
+
+        UploadJob job = acceptAndProcess();
+
+        assertThat(job.status()).isEqualTo(UploadJob.Status.RETRYING);
+        assertThat(Files.exists(spoolDir.resolve(job.id() + ".bin"))).isTrue();
+        verify(ingestScheduler).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    @Test
+    void corruptStateFileDoesNotStopRecovery() throws IOException {
+        Files.writeString(spoolDir.resolve("broken.json"), "{not json");
+        UploadJob pending = UploadJob.queued("pending", "a.jpg", "image/jpeg", "");
+        objectMapper.writeValue(spoolDir.resolve("pending.json").toFile(), pending);
+        Files.write(spoolDir.resolve("pending.bin"), new byte[]{1, 2, 3});
+
+        service.recoverSpooledJobs();
+
+        assertThat(spoolDir.resolve("broken.json")).doesNotExist();
+        assertThat(spoolDir.resolve("broken.json.corrupt")).exists();
+        assertThat(service.find("pending")).map(UploadJob::status).contains(UploadJob.Status.QUEUED);
+        verify(ingestExecutor).execute(any(Runnable.class));
+    }
+
+    @Test
+    void classifiesTransientFailuresAsRetryable() {
+        assertThat(UploadJobService.isRetryable(new UncheckedIOException(new IOException("reset")))).isTrue();
+        assertThat(UploadJobService.isRetryable(new QueryTimeoutException("slow"))).isTrue();
+        assertThat(UploadJobService.isRetryable(
+                new FileUploadException("Failed to upload file", SdkClientException.create("unreachable")))).isTrue();
+        assertThat(UploadJobService.isRetryable(new FileUploadException("Failed to upload file",
+                S3Exception.builder().statusCode(503).message("Slow Down").build()))).isTrue();
+    }
+
+    @Test
+    void classifiesOtherFailuresAsPermanent() {
+        assertThat(UploadJobService.isRetryable(new FileUploadException("Only image files are allowed"))).isFalse();
+        assertThat(UploadJobService.isRetryable(new DataIntegrityViolationException("duplicate"))).isFalse();
+        assertThat(UploadJobService.isRetryable(new FileUploadException("Failed to upload file",
+                S3Exception.builder().statusCode(403).message("Access Denied").build()))).isFalse();
+        assertThat(UploadJobService.isRetryable(new IllegalArgumentException("bad"))).isFalse();
+    }
+}
@@ -0,0 +1,92 @@
+package com.amalitech.pexelhub.storage;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DiskImageCacheTest {
+
+    @Mock
+    private ObjectStore objectStore;
+
+    @TempDir
+    private Path root;
+
+    private DiskImageCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(objectStore.get(anyString())).thenAnswer(invocation -> new ByteArrayInputStream(new byte[600]));
+        cache = new DiskImageCache(objectStore, root, DataSize.ofBytes(1000), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void servesRepeatedRequestsFromDisk() throws Exception {
+        Path first = cache.get("images/a.jpg");
+
+        assertThat(cache.get("images/a.jpg")).isEqualTo(first);
+        verify(objectStore, times(1)).get("images/a.jpg");
+    }
+
+    @Test
+    void evictedFileStaysOnDiskForSendsAlreadyHandedOut() throws Exception {
+        Path evicted = cache.get("images/a.jpg");
+
+        // over the 1000-byte budget, so a.jpg is evicted
+        cache.get("images/b.jpg");
+
+        assertThat(evicted).exists();
+        cache.get("images/a.jpg");
+        verify(objectStore, times(2)).get("images/a.jpg");
+    }
+
+    @Test
+    void refetchedFileSurvivesItsEarlierEviction() throws Exception {
+        Path file = cache.get("images/a.jpg");
+        cache.get("images/b.jpg");
+
+        assertThat(cache.get("images/a.jpg")).isEqualTo(file).exists();
+    }
+
+    @Test
+    void filesOfDeletedObjectsAreDeletedAtOnce() throws Exception {
+        Path evicted = cache.get("images/a.jpg");
+        Path cached = cache.get("images/b.jpg");
+
+        cache.remove(List.of("images/a.jpg", "images/b.jpg"));
+
+        assertThat(evicted).doesNotExist();
+        assertThat(cached).doesNotExist();
+    }
+
+    @Test
+    void clearDeletesEvictedFilesToo() throws Exception {
+        Path evicted = cache.get("images/a.jpg");
+        cache.get("images/b.jpg");
+
+        cache.clear();
+
+        try (Stream<Path> files = Files.list(root)) {
+            assertThat(files).isEmpty();
+        }
+        assertThat(evicted).doesNotExist();
+    }
+}
@@ -0,0 +1,63 @@
+package com.amalitech.pexelhub.storage;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileRangeWriterTest {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 13};
+
+    @TempDir
+    private Path dir;
+
+    private MockHttpServletResponse writeImage(String name, byte[] content, String range) throws Exception {
+        Path file = Files.write(dir.resolve(name), content);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/images/" + name);
+        if (range != null) {
+            request.addHeader(HttpHeaders.RANGE, range);
+        }
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FileRangeWriter.writeImage(request, response, file);
+        return response;
+    }
+
+    @Test
+    void servesRasterImageInlineUnderItsDetectedType() throws Exception {
+        // the name claims HTML, the bytes are a PNG
+        MockHttpServletResponse response = writeImage("photo.html", PNG, null);
+
+        assertThat(response.getContentType()).isEqualTo("image/png");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_DISPOSITION)).isNull();
+        assertThat(response.getHeader("X-Content-Type-Options")).isEqualTo("nosniff");
+        assertThat(response.getContentAsByteArray()).isEqualTo(PNG);
+    }
+
+    @Test
+    void servesMarkupAsDownload() throws Exception {
+        byte[] html = "<html><script>alert(1)</script></html>".getBytes(StandardCharsets.UTF_8);
+
+        MockHttpServletResponse response = writeImage("evil.png", html, null);
+
+        assertThat(response.getContentType()).isEqualTo("application/octet-stream");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_DISPOSITION)).isEqualTo("attachment");
+        assertThat(response.getHeader("X-Content-Type-Options")).isEqualTo("nosniff");
+    }
+
+    @Test
+    void servesRequestedRange() throws Exception {
+        MockHttpServletResponse response = writeImage("photo.png", PNG, "bytes=1-3");
+
+        assertThat(response.getStatus()).isEqualTo(206);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 1-3/12");
+        assertThat(response.getContentAsString(StandardCharsets.US_ASCII)).isEqualTo("PNG");
+    }
+}
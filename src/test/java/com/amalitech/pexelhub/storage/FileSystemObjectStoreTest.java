@@ -0,0 +1,66 @@
+package com.amalitech.pexelhub.storage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FileSystemObjectStoreTest {
+
+    private static final String KEY = "images/cat.jpg";
+
+    @TempDir
+    private Path root;
+
+    private FileSystemObjectStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new FileSystemObjectStore(root, new UrlSigner("test-secret", false), DataSize.ofMegabytes(1));
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    @Test
+    void putVerifiedStoresMatchingContent() throws Exception {
+        byte[] content = "image bytes".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(store.putVerified(KEY, new ByteArrayInputStream(content), content.length, sha256(content))).isTrue();
+
+        assertThat(root.resolve(KEY)).hasBinaryContent(content);
+    }
+
+    @Test
+    void putVerifiedLeavesTheExistingObjectOnChecksumMismatch() throws Exception {
+        byte[] original = "original".getBytes(StandardCharsets.UTF_8);
+        store.put(KEY, "image/jpeg", new ByteArrayInputStream(original));
+        byte[] forged = "forged!!".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(store.putVerified(KEY, new ByteArrayInputStream(forged), forged.length, sha256(original))).isFalse();
+
+        assertThat(root.resolve(KEY)).hasBinaryContent(original);
+        try (var files = Files.list(root.resolve("images"))) {
+            assertThat(files).containsExactly(root.resolve(KEY));
+        }
+    }
+
+    @Test
+    void putVerifiedRejectsContentOfAnotherLength() throws Exception {
+        byte[] content = "image bytes".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(store.putVerified(KEY, new ByteArrayInputStream(content), content.length + 1, sha256(content))).isFalse();
+
+        assertThat(root.resolve(KEY)).doesNotExist();
+    }
+}
@@ -0,0 +1,53 @@
+package com.amalitech.pexelhub.storage;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageContentTypeTest {
+
+    private static byte[] bytes(int... values) {
+        byte[] bytes = new byte[values.length];
+        for (int i = 0; i < values.length; i++) {
+            bytes[i] = (byte) values[i];
+        }
+        return bytes;
+    }
+
+    @Test
+    void recognisesAllowedRasterTypes() {
+        assertThat(ImageContentType.sniff(bytes(0xFF, 0xD8, 0xFF, 0xE0))).isEqualTo(MediaType.IMAGE_JPEG);
+        assertThat(ImageContentType.sniff(bytes(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0)))
+                .isEqualTo(MediaType.IMAGE_PNG);
+        assertThat(ImageContentType.sniff("GIF89a...".getBytes(StandardCharsets.US_ASCII))).isEqualTo(MediaType.IMAGE_GIF);
+        assertThat(ImageContentType.sniff("GIF87a...".getBytes(StandardCharsets.US_ASCII))).isEqualTo(MediaType.IMAGE_GIF);
+        assertThat(ImageContentType.sniff(bytes('R', 'I', 'F', 'F', 1, 2, 3, 4, 'W', 'E', 'B', 'P')))
+                .isEqualTo(ImageContentType.IMAGE_WEBP);
+    }
+
+    @Test
+    void rejectsMarkupAndOtherContent() {
+        assertThat(ImageContentType.sniff("<html><script>".getBytes(StandardCharsets.US_ASCII))).isNull();
+        assertThat(ImageContentType.sniff("<svg xmlns=".getBytes(StandardCharsets.US_ASCII))).isNull();
+        assertThat(ImageContentType.sniff(bytes('R', 'I', 'F', 'F', 1, 2, 3, 4, 'W', 'A', 'V', 'E'))).isNull();
+    }
+
+    @Test
+    void rejectsTruncatedSignatures() {
+        assertThat(ImageContentType.sniff(new byte[0])).isNull();
+        assertThat(ImageContentType.sniff(bytes(0xFF, 0xD8))).isNull();
+        assertThat(ImageContentType.sniff(bytes('R', 'I', 'F', 'F', 1, 2, 3, 4, 'W', 'E'))).isNull();
+    }
+
+    @Test
+    void acceptsOnlyRasterExtensions() {
+        assertThat(ImageContentType.hasRasterExtension("cat.JPG")).isTrue();
+        assertThat(ImageContentType.hasRasterExtension("cat.tar.webp")).isTrue();
+        assertThat(ImageContentType.hasRasterExtension("evil.svg")).isFalse();
+        assertThat(ImageContentType.hasRasterExtension("evil.png.html")).isFalse();
+        assertThat(ImageContentType.hasRasterExtension("png")).isFalse();
+    }
+}
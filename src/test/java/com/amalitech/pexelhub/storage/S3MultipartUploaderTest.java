@@ -0,0 +1,136 @@
+package com.amalitech.pexelhub.storage;
+
+import com.amalitech.pexelhub.exception.FileUploadException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class S3MultipartUploaderTest {
+
+    private static final int PART_SIZE = (int) DataSize.ofMegabytes(5).toBytes();
+
+    @Mock
+    private S3AsyncClient s3AsyncClient;
+
+    private S3MultipartUploader uploader;
+
+    @BeforeEach
+    void setUp() {
+        uploader = new S3MultipartUploader(s3AsyncClient, DataSize.ofMegabytes(5), 2, DataSize.ofMegabytes(20));
+    }
+
+    private static ByteArrayInputStream content(long length) {
+        return new ByteArrayInputStream(new byte[(int) length]);
+    }
+
+    private void startsMultipartUpload() {
+        when(s3AsyncClient.createMultipartUpload(any(CreateMultipartUploadRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(
+                        CreateMultipartUploadResponse.builder().uploadId("upload-1").build()));
+    }
+
+    private void abortsMultipartUpload() {
+        when(s3AsyncClient.abortMultipartUpload(any(AbortMultipartUploadRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(AbortMultipartUploadResponse.builder().build()));
+    }
+
+    @Test
+    void objectSmallerThanOnePartIsSentWithSinglePut() throws Exception {
+        when(s3AsyncClient.putObject(any(PutObjectRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.completedFuture(PutObjectResponse.builder().build()));
+
+        assertThat(uploader.upload("bucket", "images/a.jpg", "image/jpeg", content(1024))).isEqualTo(1024);
+
+        verify(s3AsyncClient, never()).createMultipartUpload(any(CreateMultipartUploadRequest.class));
+    }
+
+    @Test
+    void completesUploadWithPartsInOrder() throws Exception {
+        startsMultipartUpload();
+        when(s3AsyncClient.uploadPart(any(UploadPartRequest.class), any(AsyncRequestBody.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(UploadPartResponse.builder()
+                        .eTag("etag-" + invocation.getArgument(0, UploadPartRequest.class).partNumber())
+                        .build()));
+        when(s3AsyncClient.completeMultipartUpload(any(CompleteMultipartUploadRequest.class)))
+                .thenReturn(CompletableFuture.completedFuture(CompleteMultipartUploadResponse.builder().build()));
+
+        long length = 2L * PART_SIZE + 10;
+        assertThat(uploader.upload("bucket", "images/a.jpg", "image/jpeg", content(length))).isEqualTo(length);
+
+        ArgumentCaptor<CompleteMultipartUploadRequest> request = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(s3AsyncClient).completeMultipartUpload(request.capture());
+        assertThat(request.getValue().uploadId()).isEqualTo("upload-1");
+        assertThat(request.getValue().multipartUpload().parts())
+                .extracting(CompletedPart::partNumber, CompletedPart::eTag)
+                .containsExactly(
+                        tuple(1, "etag-1"),
+                        tuple(2, "etag-2"),
+                        tuple(3, "etag-3"));
+        verify(s3AsyncClient, never()).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+    }
+
+    @Test
+    void abortsUploadWhenPartFails() {
+        startsMultipartUpload();
+        abortsMultipartUpload();
+        when(s3AsyncClient.uploadPart(any(UploadPartRequest.class), any(AsyncRequestBody.class)))
+                .thenAnswer(invocation -> invocation.getArgument(0, UploadPartRequest.class).partNumber() == 1
+                        ? CompletableFuture.completedFuture(UploadPartResponse.builder().eTag("etag-1").build())
+                        : CompletableFuture.failedFuture(S3Exception.builder().message("part rejected").build()));
+
+        assertThatThrownBy(() -> uploader.upload("bucket", "images/a.jpg", "image/jpeg", content(3L * PART_SIZE)))
+                .isInstanceOf(FileUploadException.class)
+                .hasMessageContaining("part rejected");
+
+        ArgumentCaptor<AbortMultipartUploadRequest> request = ArgumentCaptor.forClass(AbortMultipartUploadRequest.class);
+        verify(s3AsyncClient).abortMultipartUpload(request.capture());
+        assertThat(request.getValue().uploadId()).isEqualTo("upload-1");
+        assertThat(request.getValue().key()).isEqualTo("images/a.jpg");
+        verify(s3AsyncClient, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+
+    @Test
+    void abortsUploadWhenObjectIsTooLarge() {
+        startsMultipartUpload();
+        abortsMultipartUpload();
+        when(s3AsyncClient.uploadPart(any(UploadPartRequest.class), any(AsyncRequestBody.class)))
+                .thenReturn(CompletableFuture.completedFuture(UploadPartResponse.builder().eTag("etag").build()));
+
+        assertThatThrownBy(() -> uploader.upload("bucket", "images/a.jpg", "image/jpeg", content(5L * PART_SIZE)))
+                .isInstanceOf(FileUploadException.class)
+                .hasMessageContaining("maximum allowed");
+
+        verify(s3AsyncClient).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(s3AsyncClient, never()).completeMultipartUpload(any(CompleteMultipartUploadRequest.class));
+    }
+}